@@ -0,0 +1,138 @@
+package com.example.group316weatherappproject;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumented tests for AsyncDatabase.
+ * These tests verify that results arrive on the main thread, that writes
+ * are applied in order, and that a write made just before the screen
+ * closes is still saved while its result is dropped, and that registration
+ * reports a taken username.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AsyncDatabaseTest {
+
+    private static final String TEST_USER = "asyncdbtestuser";
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+    private ActivityScenario<LoginActivity> scenario;
+    private AsyncDatabase database;
+
+    /**
+     * Creates a test user and an AsyncDatabase bound to a running LoginActivity.
+     */
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        new SessionManager(context).logoutUser();
+
+        databaseHelper = DatabaseHelper.getInstance(context);
+        databaseHelper.deleteUser(TEST_USER);
+        databaseHelper.registerUser(TEST_USER, "password123");
+
+        scenario = ActivityScenario.launch(LoginActivity.class);
+        scenario.onActivity(activity ->
+                database = new AsyncDatabase(databaseHelper, TaskScope.bindTo(activity)));
+    }
+
+    /**
+     * Closes the screen and removes the test user and its cities.
+     */
+    @After
+    public void tearDown() {
+        scenario.close();
+        for (City city : databaseHelper.getCitiesForUser(TEST_USER)) {
+            databaseHelper.deleteCity(TEST_USER, city.name);
+        }
+        databaseHelper.deleteUser(TEST_USER);
+    }
+
+    /**
+     * Verifies that a query queued after two writes sees both, and its result arrives on the main thread.
+     */
+    @Test
+    public void testResultsArriveOnMainThreadAfterEarlierWrites() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(1);
+        AtomicReference<List<City>> result = new AtomicReference<>();
+        AtomicBoolean onMainThread = new AtomicBoolean();
+
+        database.addCity(TEST_USER, "Seoul", 37.57, 126.98, null);
+        database.addCity(TEST_USER, "Quito", -0.18, -78.47, null).get(5, TimeUnit.SECONDS);
+        database.getCitiesForUser(TEST_USER, cities -> {
+            onMainThread.set(Looper.myLooper() == Looper.getMainLooper());
+            result.set(cities);
+            delivered.countDown();
+        });
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertTrue(onMainThread.get());
+        assertEquals(2, result.get().size());
+        assertEquals("seoul", result.get().get(0).name);
+        assertEquals("quito", result.get().get(1).name);
+    }
+
+    /**
+     * Verifies that a write is saved after its screen is destroyed, but its callback never runs.
+     */
+    @Test
+    public void testWriteSurvivesScreenButResultIsDropped() throws Exception {
+        AtomicBoolean called = new AtomicBoolean();
+        AtomicReference<Future<Boolean>> write = new AtomicReference<>();
+
+        // Hold the write thread so the screen is gone before the write runs
+        CountDownLatch release = new CountDownLatch(1);
+        AppExecutors.databaseWrites().submit(PriorityExecutor.Priority.USER, () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        scenario.onActivity(activity ->
+                write.set(database.addCity(TEST_USER, "Hanoi", 21.03, 105.85, added -> called.set(true))));
+        scenario.close();
+        release.countDown();
+
+        assertTrue(write.get().get(5, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertFalse(called.get());
+        assertEquals(1, databaseHelper.getCitiesForUser(TEST_USER).size());
+    }
+
+    /**
+     * Verifies that registering a new name succeeds and a taken name fails on the insert.
+     */
+    @Test
+    public void testRegisterUserReportsTakenName() throws Exception {
+        String newUser = TEST_USER + "2";
+        databaseHelper.deleteUser(newUser);
+        try {
+            assertFalse(database.registerUser(TEST_USER, "password123", null).get(5, TimeUnit.SECONDS));
+            assertTrue(database.registerUser(newUser, "password123", null).get(5, TimeUnit.SECONDS));
+            assertNotNull(databaseHelper.checkPassword(newUser, "password123"));
+        } finally {
+            databaseHelper.deleteUser(newUser);
+        }
+    }
+}
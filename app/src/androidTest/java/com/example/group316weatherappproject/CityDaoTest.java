@@ -0,0 +1,166 @@
+package com.example.group316weatherappproject;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumented tests for CityDao.
+ * These tests verify that the user is resolved inside each statement, that
+ * unknown users and duplicates are rejected, and that listing a user's
+ * cities is answered from the covering index without waiting for writers.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CityDaoTest {
+
+    private static final String TEST_USER = "citydaotestuser";
+
+    private DatabaseHelper databaseHelper;
+    private CityDao cityDao;
+
+    /**
+     * Creates a fresh DatabaseHelper and a test user without cities.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        databaseHelper = new DatabaseHelper(context);
+        cityDao = new CityDao(databaseHelper);
+        databaseHelper.deleteUser(TEST_USER);
+        databaseHelper.registerUser(TEST_USER, "password123");
+    }
+
+    /**
+     * Removes the test user and its cities and closes the database.
+     */
+    @After
+    public void tearDown() {
+        for (City city : cityDao.getCitiesForUser(TEST_USER)) {
+            cityDao.deleteCity(TEST_USER, city.name);
+        }
+        databaseHelper.deleteUser(TEST_USER);
+        databaseHelper.close();
+    }
+
+    /**
+     * Verifies that cities are listed in the order they were added, with their coordinates.
+     */
+    @Test
+    public void testAddAndListInInsertionOrder() {
+        assertTrue(cityDao.addCity(TEST_USER, "Zurich", 47.37, 8.54));
+        assertTrue(cityDao.addCity(TEST_USER, "Austin", 30.27, -97.74));
+
+        List<City> cities = cityDao.getCitiesForUser(TEST_USER.toUpperCase());
+        assertEquals(2, cities.size());
+        assertEquals("zurich", cities.get(0).name);
+        assertEquals("austin", cities.get(1).name);
+        assertEquals(-97.74, cities.get(1).lon, 0.0001);
+    }
+
+    /**
+     * Verifies that an unknown user and a duplicate city are both rejected.
+     */
+    @Test
+    public void testRejectsUnknownUserAndDuplicates() {
+        assertFalse(cityDao.addCity("citydaonosuchuser", "Paris", 48.85, 2.35));
+        assertTrue(cityDao.addCity(TEST_USER, "Paris", 48.85, 2.35));
+        assertFalse(cityDao.addCity(TEST_USER, "PARIS", 48.85, 2.35));
+        assertTrue(cityDao.getCitiesForUser("citydaonosuchuser").isEmpty());
+    }
+
+    /**
+     * Verifies that deleting only removes the named city of the named user.
+     */
+    @Test
+    public void testDeleteCity() {
+        cityDao.addCity(TEST_USER, "Oslo", 59.91, 10.75);
+        cityDao.addCity(TEST_USER, "Lima", -12.05, -77.04);
+
+        assertFalse(cityDao.deleteCity("citydaonosuchuser", "Oslo"));
+        assertTrue(cityDao.deleteCity(TEST_USER, "OSLO"));
+        assertFalse(cityDao.deleteCity(TEST_USER, "Oslo"));
+        assertEquals(1, cityDao.getCitiesForUser(TEST_USER).size());
+    }
+
+    /**
+     * Verifies that the city list query reads the covering index, not the table.
+     */
+    @Test
+    public void testListUsesCoveringIndex() {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = databaseHelper.getReadableDatabase().rawQuery(
+                "EXPLAIN QUERY PLAN SELECT c.city_name, c.latitude, c.longitude FROM cities c"
+                        + " JOIN users u ON c.user_id = u.id WHERE u.username = ? ORDER BY c.city_id",
+                new String[]{TEST_USER})) {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnIndexOrThrow("detail"))).append('\n');
+            }
+        }
+        assertTrue(plan.toString(), plan.toString().contains("COVERING INDEX idx_cities_user_covering"));
+    }
+
+    /**
+     * Verifies that the database runs in write-ahead logging mode.
+     */
+    @Test
+    public void testJournalModeIsWal() {
+        String mode = DatabaseUtils.stringForQuery(databaseHelper.getReadableDatabase(), "PRAGMA journal_mode", null);
+        assertEquals("wal", mode.toLowerCase());
+    }
+
+    /**
+     * Verifies that listing cities neither waits for nor sees an open write transaction.
+     */
+    @Test
+    public void testListDoesNotWaitForWriter() throws Exception {
+        cityDao.addCity(TEST_USER, "Rome", 41.90, 12.50);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> {
+                SQLiteDatabase db = databaseHelper.getWritableDatabase();
+                db.beginTransactionNonExclusive();
+                try {
+                    cityDao.addCity(TEST_USER, "Nairobi", -1.29, 36.82);
+                    writing.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                } finally {
+                    db.endTransaction();
+                }
+                return null;
+            });
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            Future<List<City>> read = executor.submit(() -> cityDao.getCitiesForUser(TEST_USER));
+            List<City> cities = read.get(2, TimeUnit.SECONDS);
+            assertEquals(1, cities.size());
+            assertEquals("rome", cities.get(0).name);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
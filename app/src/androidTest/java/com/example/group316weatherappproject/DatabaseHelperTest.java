@@ -243,4 +243,42 @@ public class DatabaseHelperTest {
         assertNull("Second user should not authenticate with wrong password",
                 databaseHelper.authenticateUser("duplicateUser", "wrongpass"));
     }
+
+    /**
+     * Confirms that a password stored at an outdated cost is rehashed at the
+     * device's calibrated cost after a successful login, and still works.
+     */
+    @Test
+    public void testAuthenticate_RehashesOutdatedCost() {
+        // Store a hash made at a cost this device never uses
+        String oldHash = new PasswordHasher(4).hash("rehashPass");
+        assertTrue("Insert should succeed", databaseHelper.insertUser("dbTestUser", oldHash));
+
+        User user = databaseHelper.authenticateUser("dbTestUser", "rehashPass");
+        assertNotNull("User should authenticate with the old hash", user);
+
+        String storedHash = databaseHelper.getUserByUsername("dbTestUser").getPasswordHash();
+        int calibrated = databaseHelper.getPasswordHasher().getLogRounds();
+        assertEquals("Stored hash should use the calibrated cost",
+                calibrated, PasswordHasher.costOf(storedHash));
+        assertEquals("Returned user should carry the new hash", storedHash, user.getPasswordHash());
+        assertNotNull("User should still authenticate after rehashing",
+                databaseHelper.authenticateUser("dbTestUser", "rehashPass"));
+    }
+
+    /**
+     * Confirms that a password stored at a higher cost than the device's is
+     * left alone after a successful login, so a rehash never weakens it.
+     */
+    @Test
+    public void testAuthenticate_KeepsHigherCost() {
+        int calibrated = databaseHelper.getPasswordHasher().getLogRounds();
+        String strongHash = new PasswordHasher(calibrated + 1).hash("strongPass");
+        assertTrue("Insert should succeed", databaseHelper.insertUser("dbTestUser", strongHash));
+
+        assertNotNull("User should authenticate with the stronger hash",
+                databaseHelper.authenticateUser("dbTestUser", "strongPass"));
+        assertEquals("Stored hash should be unchanged", strongHash,
+                databaseHelper.getUserByUsername("dbTestUser").getPasswordHash());
+    }
 }
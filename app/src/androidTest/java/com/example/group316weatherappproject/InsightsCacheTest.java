@@ -0,0 +1,100 @@
+package com.example.group316weatherappproject;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumented tests for the insights_cache table in DatabaseHelper.
+ * These tests store generated question lists and answers and verify that
+ * they are keyed by weather bucket and question, and dropped once older
+ * than the requested TTL.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InsightsCacheTest {
+
+    private static final String TEST_KEY = WeatherBucket.insightsKey("InsightsTestCity", 12.3, 81, 4.6, "light rain");
+    private static final long TTL = 60_000;
+
+    private DatabaseHelper databaseHelper;
+
+    /**
+     * Creates a fresh DatabaseHelper and removes leftover cache rows.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        databaseHelper = new DatabaseHelper(context);
+        cleanupCache();
+    }
+
+    /**
+     * Removes cache rows written by these tests and closes the database.
+     */
+    @After
+    public void tearDown() {
+        cleanupCache();
+        if (databaseHelper != null) {
+            databaseHelper.close();
+        }
+    }
+
+    /**
+     * Deletes the rows used by these tests.
+     */
+    private void cleanupCache() {
+        databaseHelper.getWritableDatabase().execSQL(
+                "DELETE FROM insights_cache WHERE bucket_key LIKE ?",
+                new String[]{"insightstestcity|%"}
+        );
+    }
+
+    /**
+     * Verifies that the question list and an answer are stored side by side under one bucket.
+     */
+    @Test
+    public void testPutAndGetCachedInsights() {
+        assertTrue(databaseHelper.putCachedInsight(TEST_KEY, "", "Question one?\nQuestion two?"));
+        assertTrue(databaseHelper.putCachedInsight(TEST_KEY, "Question one?", "Wear a raincoat."));
+
+        assertEquals("Question one?\nQuestion two?", databaseHelper.getCachedInsight(TEST_KEY, "", TTL));
+        assertEquals("Wear a raincoat.", databaseHelper.getCachedInsight(TEST_KEY, "Question one?", TTL));
+        assertNull("Unanswered questions should miss",
+                databaseHelper.getCachedInsight(TEST_KEY, "Question two?", TTL));
+    }
+
+    /**
+     * Verifies that similar conditions hit the same entry and different ones miss.
+     */
+    @Test
+    public void testBucketKeyGroupsSimilarConditions() {
+        databaseHelper.putCachedInsight(TEST_KEY, "", "Question one?");
+
+        String similar = WeatherBucket.insightsKey("insightstestcity ", 13.9, 85, 5.0, "Light rain");
+        String warmer = WeatherBucket.insightsKey("InsightsTestCity", 16.0, 81, 4.6, "light rain");
+
+        assertEquals("Question one?", databaseHelper.getCachedInsight(similar, "", TTL));
+        assertNull("Another temperature band should miss", databaseHelper.getCachedInsight(warmer, "", TTL));
+    }
+
+    /**
+     * Verifies that an entry older than the TTL is not returned.
+     */
+    @Test
+    public void testExpiredEntryIsDropped() {
+        databaseHelper.putCachedInsight(TEST_KEY, "", "Question one?");
+
+        assertNull("Entry past its TTL should miss", databaseHelper.getCachedInsight(TEST_KEY, "", 0));
+        assertNull("Expired entry should be deleted", databaseHelper.getCachedInsight(TEST_KEY, "", TTL));
+    }
+}
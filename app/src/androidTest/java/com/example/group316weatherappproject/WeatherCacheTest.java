@@ -0,0 +1,135 @@
+package com.example.group316weatherappproject;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumented tests for the weather_cache table in DatabaseHelper.
+ * These tests store and read back cached observations and verify that
+ * entries are keyed by city and coordinates, replaced on refresh,
+ * reported as stale once their TTL has passed, and deleted once too old to show.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WeatherCacheTest {
+
+    private static final String TEST_CITY = "cachetestcity";
+    private static final double TEST_LAT = 41.8781;
+    private static final double TEST_LON = -87.6298;
+
+    private DatabaseHelper databaseHelper;
+
+    /**
+     * Creates a fresh DatabaseHelper and removes leftover cache rows.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        databaseHelper = new DatabaseHelper(context);
+        cleanupCache();
+    }
+
+    /**
+     * Removes cache rows written by these tests and closes the database.
+     */
+    @After
+    public void tearDown() {
+        cleanupCache();
+        if (databaseHelper != null) {
+            databaseHelper.close();
+        }
+    }
+
+    /**
+     * Deletes the rows used by these tests.
+     */
+    private void cleanupCache() {
+        databaseHelper.getWritableDatabase().execSQL(
+                "DELETE FROM weather_cache WHERE city_name = ?",
+                new String[]{TEST_CITY}
+        );
+    }
+
+    /**
+     * Verifies that a stored payload can be read back for the same city and coordinates.
+     */
+    @Test
+    public void testPutAndGetCachedWeather() {
+        assertTrue(databaseHelper.putCachedWeather("CacheTestCity", TEST_LAT, TEST_LON, "{\"dt\":1}", 60_000));
+
+        CachedWeather cached = databaseHelper.getCachedWeather(TEST_CITY, TEST_LAT, TEST_LON);
+        assertNotNull("Cached entry should be found", cached);
+        assertEquals("{\"dt\":1}", cached.getPayload());
+        assertTrue("Entry should be fresh right after writing", cached.isFresh());
+    }
+
+    /**
+     * Verifies that different coordinates for the same city name are separate entries.
+     */
+    @Test
+    public void testCacheKeyIncludesCoordinates() {
+        databaseHelper.putCachedWeather(TEST_CITY, TEST_LAT, TEST_LON, "{\"dt\":1}", 60_000);
+
+        assertNull("Other coordinates should miss",
+                databaseHelper.getCachedWeather(TEST_CITY, 40.1106, -88.2073));
+    }
+
+    /**
+     * Verifies that a refresh replaces the previous payload instead of adding a row.
+     */
+    @Test
+    public void testPutReplacesExistingEntry() {
+        databaseHelper.putCachedWeather(TEST_CITY, TEST_LAT, TEST_LON, "{\"dt\":1}", 60_000);
+        databaseHelper.putCachedWeather(TEST_CITY, TEST_LAT, TEST_LON, "{\"dt\":2}", 60_000);
+
+        CachedWeather cached = databaseHelper.getCachedWeather(TEST_CITY, TEST_LAT, TEST_LON);
+        assertNotNull(cached);
+        assertEquals("{\"dt\":2}", cached.getPayload());
+    }
+
+    /**
+     * Verifies that an entry with a zero TTL is returned but reported as stale.
+     */
+    @Test
+    public void testExpiredEntryIsStale() {
+        databaseHelper.putCachedWeather(TEST_CITY, TEST_LAT, TEST_LON, "{\"dt\":1}", 0);
+
+        CachedWeather cached = databaseHelper.getCachedWeather(TEST_CITY, TEST_LAT, TEST_LON);
+        assertNotNull("Stale entries are still returned", cached);
+        assertFalse("Entry past its TTL should be stale", cached.isFresh());
+    }
+
+    /**
+     * Verifies that storing an observation deletes rows past the maximum age,
+     * and that such rows are not returned before then.
+     */
+    @Test
+    public void testOldEntriesArePruned() {
+        databaseHelper.putCachedWeather(TEST_CITY, TEST_LAT, TEST_LON, "{\"dt\":1}", 60_000);
+        long tooOld = System.currentTimeMillis() - DatabaseHelper.MAX_WEATHER_CACHE_AGE_MS - 1000;
+        databaseHelper.getWritableDatabase().execSQL(
+                "UPDATE weather_cache SET fetched_at = ? WHERE city_name = ?",
+                new Object[]{tooOld, TEST_CITY});
+        assertNull("Entry past the maximum age should miss",
+                databaseHelper.getCachedWeather(TEST_CITY, TEST_LAT, TEST_LON));
+
+        // Another location's refresh prunes the old row
+        databaseHelper.putCachedWeather(TEST_CITY, TEST_LAT + 1, TEST_LON, "{\"dt\":2}", 60_000);
+        long rows = DatabaseUtils.queryNumEntries(databaseHelper.getReadableDatabase(),
+                "weather_cache", "city_name = ?", new String[]{TEST_CITY});
+        assertEquals("Only the new entry should remain", 1, rows);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.group316weatherappproject;
+
+import okhttp3.HttpUrl;
+
+/**
+ * The remote APIs the app calls, as seen by the shared HTTP client.
+ * Resilience policies such as circuit breakers are kept per endpoint, so an
+ * outage of the image model does not cut off Insights text, and so on.
+ */
+public enum ApiEndpoint {
+    WEATHER,
+    GEOCODE,
+    GEMINI_TEXT,
+    GEMINI_IMAGE;
+
+    private static final String OPENWEATHER_HOST = "api.openweathermap.org";
+    private static final String GOOGLE_MAPS_HOST = "maps.googleapis.com";
+
+    /**
+     * Endpoint a request URL belongs to, or null for hosts the app does not track.
+     */
+    public static ApiEndpoint of(HttpUrl url) {
+        String host = url.host();
+        if (host.equals(OPENWEATHER_HOST)) {
+            return WEATHER;
+        }
+        if (host.equals(GOOGLE_MAPS_HOST) && url.encodedPath().contains("/geocode/")) {
+            return GEOCODE;
+        }
+        if (host.equals(GeminiRateLimiter.GEMINI_HOST)) {
+            return GeminiRateLimiter.modelOf(url).contains("image") ? GEMINI_IMAGE : GEMINI_TEXT;
+        }
+        return null;
+    }
+}
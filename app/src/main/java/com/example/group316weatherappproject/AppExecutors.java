@@ -0,0 +1,81 @@
+package com.example.group316weatherappproject;
+
+import android.os.Process;
+
+/**
+ * The app's shared background pools, one per kind of work, so a burst of one
+ * kind cannot starve the others or start an unbounded number of threads.
+ * Network holds tasks that block on HTTP calls, disk holds cache file work,
+ * decode holds CPU-bound image decoding, crypto holds password hashing, and
+ * the two database pools hold SQLite reads and writes.
+ */
+public class AppExecutors {
+
+    private static final int NETWORK_THREADS = 4;
+    private static final int DISK_THREADS = 2;
+    // Write-ahead logging lets reads run beside the one writer
+    private static final int DATABASE_READ_THREADS = 2;
+    // SQLite serializes writers, so more threads would only wait on its lock;
+    // one thread also keeps writes in the order they were made
+    private static final int DATABASE_WRITE_THREADS = 1;
+    // One hash at a time, so a burst cannot take every core
+    private static final int CRYPTO_THREADS = 1;
+    private static final int DECODE_THREADS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final PriorityExecutor NETWORK =
+            new PriorityExecutor("network", NETWORK_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+    private static final PriorityExecutor DISK =
+            new PriorityExecutor("disk", DISK_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+    private static final PriorityExecutor DATABASE_READS =
+            new PriorityExecutor("db-read", DATABASE_READ_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+    private static final PriorityExecutor DATABASE_WRITES =
+            new PriorityExecutor("db-write", DATABASE_WRITE_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+    private static final PriorityExecutor DECODE =
+            new PriorityExecutor("decode", DECODE_THREADS,
+                    Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+
+    private static final PriorityExecutor CRYPTO =
+            new PriorityExecutor("crypto", CRYPTO_THREADS,
+                    Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+
+    private AppExecutors() {}
+
+    // Get the pool for tasks that wait on HTTP calls
+    public static PriorityExecutor network() {
+        return NETWORK;
+    }
+
+    // Get the pool for cache file work
+    public static PriorityExecutor disk() {
+        return DISK;
+    }
+
+    // Get the pool for database queries
+    public static PriorityExecutor databaseReads() {
+        return DATABASE_READS;
+    }
+
+    // Get the single thread for database writes
+    public static PriorityExecutor databaseWrites() {
+        return DATABASE_WRITES;
+    }
+
+    // Get the pool for CPU-bound decoding
+    public static PriorityExecutor decode() {
+        return DECODE;
+    }
+
+    // Get the worker for password hashing
+    public static PriorityExecutor crypto() {
+        return CRYPTO;
+    }
+
+    /**
+     * Queue depth and wait times of every pool, one line each.
+     */
+    public static String describe() {
+        return NETWORK.describe() + "\n" + DISK.describe() + "\n" + DATABASE_READS.describe()
+                + "\n" + DATABASE_WRITES.describe() + "\n" + DECODE.describe() + "\n" + CRYPTO.describe();
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.group316weatherappproject;
+
+import android.util.Log;
+
+import com.example.group316weatherappproject.database.User;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous version of the DatabaseHelper API for screens. Queries run on
+ * the database read pool and writes on the single database write thread, so
+ * writes of one priority happen in the order they were made. Results are
+ * delivered on the main thread through the screen's TaskScope, and dropped
+ * once the screen is destroyed. Queued queries are cancelled with the screen;
+ * writes always run, so leaving a screen never loses a change. Work the user
+ * is waiting for runs at USER priority; cache writes run at BACKGROUND.
+ * Password hashing runs on the crypto worker, never on a database thread.
+ */
+public class AsyncDatabase {
+
+    private static final String TAG = "AsyncDatabase";
+
+    /**
+     * Receives the result of a database call on the main thread. If the call
+     * fails, onError is called instead; by default the failure is only logged.
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+
+        default void onError(Exception error) {}
+    }
+
+    private final DatabaseHelper helper;
+    private final TaskScope tasks;
+
+    // Constructor for a screen's view of the shared database
+    public AsyncDatabase(DatabaseHelper helper, TaskScope tasks) {
+        this.helper = helper;
+        this.tasks = tasks;
+    }
+
+    // Each call below runs the DatabaseHelper method of the same name
+
+    // Hash on the crypto worker, then queue the insert on the write thread without waiting for it;
+    // a taken username fails the insert's UNIQUE constraint. Like writes, not cancelled with the screen
+    public Future<Boolean> registerUser(String username, String password, Callback<Boolean> callback) {
+        PasswordHasher hasher = helper.getPasswordHasher();
+        CompletableFuture<Boolean> registered = new CompletableFuture<>();
+        AppExecutors.crypto().submit(PriorityExecutor.Priority.USER, () -> {
+            String passwordHash;
+            try {
+                passwordHash = hasher.hash(password);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Password hashing failed", e);
+                registered.completeExceptionally(e);
+                fail(callback, e);
+                return;
+            }
+            write(PriorityExecutor.Priority.USER, () -> {
+                try {
+                    boolean inserted = helper.insertUser(username, passwordHash);
+                    registered.complete(inserted);
+                    return inserted;
+                } catch (RuntimeException e) {
+                    registered.completeExceptionally(e);
+                    throw e;
+                }
+            }, callback);
+        });
+        return registered;
+    }
+
+    // Check the password on the crypto worker and deliver the result at once;
+    // a hash at an outdated cost is replaced afterwards, in the background
+    public Future<User> authenticateUser(String username, String password, Callback<User> callback) {
+        PasswordHasher hasher = helper.getPasswordHasher();
+        return tasks.launch(AppExecutors.crypto(), PriorityExecutor.Priority.USER, deliver(() -> {
+            User user = helper.checkPassword(username, password);
+            if (user != null && hasher.needsRehash(user.getPasswordHash())) {
+                AppExecutors.crypto().submit(PriorityExecutor.Priority.BACKGROUND, () -> {
+                    String passwordHash = hasher.hash(password);
+                    write(PriorityExecutor.Priority.BACKGROUND,
+                            () -> helper.updatePasswordHash(username, passwordHash), null);
+                });
+            }
+            return user;
+        }, callback));
+    }
+
+    public Future<User> getUserByUsername(String username, Callback<User> callback) {
+        return read(() -> helper.getUserByUsername(username), callback);
+    }
+
+    public Future<Boolean> updateThemeColor(String username, String themeColor, Callback<Boolean> callback) {
+        return write(PriorityExecutor.Priority.USER, () -> helper.updateThemeColor(username, themeColor), callback);
+    }
+
+    public Future<Boolean> updateTextColor(String username, String textColor, Callback<Boolean> callback) {
+        return write(PriorityExecutor.Priority.USER, () -> helper.updateTextColor(username, textColor), callback);
+    }
+
+    public Future<Boolean> deleteUser(String username, Callback<Boolean> callback) {
+        return write(PriorityExecutor.Priority.USER, () -> helper.deleteUser(username), callback);
+    }
+
+    public Future<Boolean> addCity(String username, String cityName, double latitude, double longitude,
+                                   Callback<Boolean> callback) {
+        return write(PriorityExecutor.Priority.USER,
+                () -> helper.addCity(username, cityName, latitude, longitude), callback);
+    }
+
+    public Future<List<City>> getCitiesForUser(String username, Callback<List<City>> callback) {
+        return read(() -> helper.getCitiesForUser(username), callback);
+    }
+
+    public Future<Boolean> deleteCity(String username, String cityName, Callback<Boolean> callback) {
+        return write(PriorityExecutor.Priority.USER, () -> helper.deleteCity(username, cityName), callback);
+    }
+
+    public Future<CachedWeather> getCachedWeather(String cityName, double latitude, double longitude,
+                                                  Callback<CachedWeather> callback) {
+        return read(() -> helper.getCachedWeather(cityName, latitude, longitude), callback);
+    }
+
+    public Future<Boolean> putCachedWeather(String cityName, double latitude, double longitude,
+                                            String payload, long ttlMs, Callback<Boolean> callback) {
+        return write(PriorityExecutor.Priority.BACKGROUND,
+                () -> helper.putCachedWeather(cityName, latitude, longitude, payload, ttlMs), callback);
+    }
+
+    // A write, not a read: the lookup marks hits as used and deletes expired entries
+    public Future<String> getCachedInsight(String bucketKey, String question, long ttlMs, Callback<String> callback) {
+        return write(PriorityExecutor.Priority.USER, () -> helper.getCachedInsight(bucketKey, question, ttlMs), callback);
+    }
+
+    public Future<Boolean> putCachedInsight(String bucketKey, String question, String response,
+                                            Callback<Boolean> callback) {
+        return write(PriorityExecutor.Priority.BACKGROUND,
+                () -> helper.putCachedInsight(bucketKey, question, response), callback);
+    }
+
+    // Queue a query the user is waiting for
+    private <T> Future<T> read(Callable<T> query, Callback<T> callback) {
+        return tasks.launch(AppExecutors.databaseReads(), PriorityExecutor.Priority.USER, deliver(query, callback));
+    }
+
+    // Queue a write behind the writes made before it; not cancelled with the screen
+    private <T> Future<T> write(PriorityExecutor.Priority priority, Callable<T> update, Callback<T> callback) {
+        return AppExecutors.databaseWrites().submit(priority, deliver(update, callback));
+    }
+
+    /**
+     * Runs the call and posts its result to the callback, which may be null
+     * when the caller does not need it. Failures are logged, posted to the
+     * callback's onError and left on the returned Future.
+     */
+    private <T> Callable<T> deliver(Callable<T> call, Callback<T> callback) {
+        return () -> {
+            T result;
+            try {
+                result = call.call();
+            } catch (Exception e) {
+                Log.e(TAG, "Database call failed", e);
+                fail(callback, e);
+                throw e;
+            }
+            if (callback != null) {
+                tasks.runOnUiThread(() -> callback.onResult(result));
+            }
+            return result;
+        };
+    }
+
+    // Posts a failure to the callback, if there is one
+    private <T> void fail(Callback<T> callback, Exception error) {
+        if (callback != null) {
+            tasks.runOnUiThread(() -> callback.onError(error));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.group316weatherappproject;
+
+/**
+ * A weather observation read back from the local weather cache.
+ * Keeps the stored payload together with when it was fetched and how long
+ * it is considered fresh, so screens can paint it immediately and decide
+ * whether a background refresh is needed.
+ */
+public class CachedWeather {
+
+    // Observations younger than this are shown without a network call
+    public static final long DEFAULT_TTL_MS = 10 * 60 * 1000L;
+
+    private final String payload;
+    private final long fetchedAt;
+    private final long ttlMillis;
+
+    // Constructor to initialize all cache entry fields
+    public CachedWeather(String payload, long fetchedAt, long ttlMillis) {
+        this.payload = payload;
+        this.fetchedAt = fetchedAt;
+        this.ttlMillis = ttlMillis;
+    }
+
+    // Get the stored OpenWeather response
+    public String getPayload() {
+        return payload;
+    }
+
+    // Get the time (epoch millis) the payload was fetched from the network
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    // Get how long (millis) the payload stays fresh after it was fetched
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Age of the entry in milliseconds.
+     */
+    public long getAgeMillis() {
+        return Math.max(0, System.currentTimeMillis() - fetchedAt);
+    }
+
+    /**
+     * True while the entry is younger than its TTL and no refresh is needed.
+     */
+    public boolean isFresh() {
+        return getAgeMillis() < ttlMillis;
+    }
+}
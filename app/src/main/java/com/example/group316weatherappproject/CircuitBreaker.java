@@ -0,0 +1,141 @@
+package com.example.group316weatherappproject;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for one API endpoint.
+ * Outcomes of the most recent calls are kept in a sliding window, with calls
+ * slower than a threshold counting as failures. When the failure rate in a
+ * full enough window reaches the threshold the circuit opens and calls are
+ * refused at once. After a cool-down one probe call is let through
+ * (half-open): success closes the circuit, failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int WINDOW_SIZE = 10;
+    private static final int MIN_CALLS = 4;
+    private static final double FAILURE_RATE_THRESHOLD = 0.5;
+    private static final long OPEN_DURATION_MS = 30_000;
+
+    private final long slowCallMillis;
+    private final LongSupplier clock;
+
+    // Ring buffer of recent outcomes, true for a failed or slow call
+    private final boolean[] window = new boolean[WINDOW_SIZE];
+    private int windowCount;
+    private int windowNext;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    // Constructor for a breaker that treats calls slower than slowCallMillis as failures
+    public CircuitBreaker(long slowCallMillis) {
+        this(slowCallMillis, System::currentTimeMillis);
+    }
+
+    // Constructor with an explicit millisecond clock, for tests
+    CircuitBreaker(long slowCallMillis, LongSupplier clock) {
+        this.slowCallMillis = slowCallMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns true if a call may go ahead. While half-open only one probe is allowed at a time.
+     * Every permitted call must be followed by onSuccess, onFailure or onIgnored.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < OPEN_DURATION_MS) return false;
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) return false;
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Records a completed call; it still counts as a failure if it took too long.
+     */
+    public synchronized void onSuccess(long latencyMillis) {
+        boolean slow = latencyMillis > slowCallMillis;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            if (slow) {
+                open();
+            } else {
+                close();
+            }
+            return;
+        }
+        record(slow);
+    }
+
+    /**
+     * Records a failed call, such as a timeout or a 5xx response.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            open();
+            return;
+        }
+        record(true);
+    }
+
+    /**
+     * Releases a permit without recording an outcome, e.g. for a cancelled call.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    // Get the current state, moving from OPEN to HALF_OPEN once the cool-down has passed
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= OPEN_DURATION_MS) {
+            state = State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    // Get how long (millis) until an open circuit lets a probe through
+    public synchronized long millisUntilRetry() {
+        if (state != State.OPEN) return 0;
+        return Math.max(0, OPEN_DURATION_MS - (clock.getAsLong() - openedAt));
+    }
+
+    // Adds an outcome to the window and opens the circuit if too many failed
+    private void record(boolean failed) {
+        if (windowCount == WINDOW_SIZE) {
+            if (window[windowNext]) failures--;
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failed;
+        if (failed) failures++;
+        windowNext = (windowNext + 1) % WINDOW_SIZE;
+
+        if (state == State.CLOSED && windowCount >= MIN_CALLS
+                && failures >= FAILURE_RATE_THRESHOLD * windowCount) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    // Closes the circuit with an empty window, so old failures do not reopen it
+    private void close() {
+        state = State.CLOSED;
+        windowCount = 0;
+        windowNext = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.group316weatherappproject;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that puts a {@link CircuitBreaker} in front of each
+ * {@link ApiEndpoint}. While an endpoint's circuit is open, requests fail
+ * immediately with {@link CircuitOpenException}, so screens show their local
+ * fallback instead of waiting for a timeout.
+ * Connection failures, 5xx responses and slow responses count against the endpoint.
+ * Cancelled calls do not. It sits after {@link GeminiRateLimiter}, so each
+ * retry is timed on its own and time spent waiting for a rate limit token or
+ * a backoff never counts as a slow response.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    private static final String TAG = "CircuitBreaker";
+
+    private final Map<ApiEndpoint, CircuitBreaker> breakers = new EnumMap<>(ApiEndpoint.class);
+
+    // Constructor creating one breaker per endpoint with its slow-call threshold
+    public CircuitBreakerInterceptor() {
+        breakers.put(ApiEndpoint.WEATHER, new CircuitBreaker(5_000));
+        breakers.put(ApiEndpoint.GEOCODE, new CircuitBreaker(5_000));
+        // Time to response headers; streamed text keeps arriving after that
+        breakers.put(ApiEndpoint.GEMINI_TEXT, new CircuitBreaker(10_000));
+        breakers.put(ApiEndpoint.GEMINI_IMAGE, new CircuitBreaker(40_000));
+    }
+
+    // Constructor with explicit breakers, for tests
+    CircuitBreakerInterceptor(Map<ApiEndpoint, CircuitBreaker> breakers) {
+        this.breakers.putAll(breakers);
+    }
+
+    // Check if an endpoint's circuit is open, so calls to it would fail at once
+    public boolean isOpen(ApiEndpoint endpoint) {
+        return breakers.get(endpoint).getState() == CircuitBreaker.State.OPEN;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        ApiEndpoint endpoint = ApiEndpoint.of(request.url());
+        if (endpoint == null) {
+            return chain.proceed(request);
+        }
+
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (!breaker.tryAcquire()) {
+            throw new CircuitOpenException(endpoint, breaker.millisUntilRetry());
+        }
+
+        long start = System.currentTimeMillis();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            if (chain.call().isCanceled()) {
+                breaker.onIgnored();
+            } else {
+                breaker.onFailure();
+                logState(endpoint, breaker);
+            }
+            throw e;
+        }
+
+        if (response.code() >= 500) {
+            breaker.onFailure();
+            logState(endpoint, breaker);
+        } else {
+            breaker.onSuccess(System.currentTimeMillis() - start);
+        }
+        return response;
+    }
+
+    // Logs when a failure has left the circuit open
+    private static void logState(ApiEndpoint endpoint, CircuitBreaker breaker) {
+        if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            Log.w(TAG, endpoint + " circuit open for " + breaker.millisUntilRetry() + " ms");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.group316weatherappproject;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of making a request while the circuit breaker for its
+ * endpoint is open. It is an IOException, so callers take their usual
+ * offline fallback, only without waiting for a timeout first.
+ */
+public class CircuitOpenException extends IOException {
+
+    private final ApiEndpoint endpoint;
+
+    // Constructor naming the endpoint whose circuit is open
+    public CircuitOpenException(ApiEndpoint endpoint, long retryInMillis) {
+        super(endpoint + " temporarily unavailable, retrying in " + (retryInMillis / 1000) + " s");
+        this.endpoint = endpoint;
+    }
+
+    // Get the endpoint that was short-circuited
+    public ApiEndpoint getEndpoint() {
+        return endpoint;
+    }
+}
@@ -10,6 +10,7 @@ public class City {
     public String name;    // stored in lowercase
     public double lat;     // latitude
     public double lon;     // longitude
+    public String weatherSummary; // latest conditions shown on the home list, null until loaded
 
     /**
      * Constructor for a city WITHOUT coordinates (backwards compatible).
@@ -63,6 +63,7 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.ViewHolder> {
     // ViewHolder class to hold references to the views for each city item
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView cityName;
+        TextView cityWeather;
         Button deleteButton;
         Button weatherButton;
         Button mapButton;
@@ -71,6 +72,7 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.ViewHolder> {
         ViewHolder(@NonNull View itemView) {
             super(itemView);
             cityName = itemView.findViewById(R.id.cityNameText);
+            cityWeather = itemView.findViewById(R.id.cityWeatherText);
             deleteButton = itemView.findViewById(R.id.deleteCityButton);
             weatherButton = itemView.findViewById(R.id.weatherButton);
             mapButton = itemView.findViewById(R.id.mapButton);
@@ -92,6 +94,14 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.ViewHolder> {
         City city = cityList.get(position);
         // Display the city name with proper capitalization
         holder.cityName.setText(city.getDisplayName());
+
+        // Show current conditions once the batch refresh has delivered them
+        if (city.weatherSummary != null) {
+            holder.cityWeather.setText(city.weatherSummary);
+            holder.cityWeather.setVisibility(View.VISIBLE);
+        } else {
+            holder.cityWeather.setVisibility(View.GONE);
+        }
         holder.deleteButton.setOnClickListener(v -> deleteListener.onDelete(city));
         
         // Set up weather button click listener
@@ -0,0 +1,145 @@
+package com.example.group316weatherappproject;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.group316weatherappproject.DatabaseHelper.COLUMN_CITY_ID;
+import static com.example.group316weatherappproject.DatabaseHelper.COLUMN_CITY_NAME;
+import static com.example.group316weatherappproject.DatabaseHelper.COLUMN_ID;
+import static com.example.group316weatherappproject.DatabaseHelper.COLUMN_LATITUDE;
+import static com.example.group316weatherappproject.DatabaseHelper.COLUMN_LONGITUDE;
+import static com.example.group316weatherappproject.DatabaseHelper.COLUMN_USERNAME;
+import static com.example.group316weatherappproject.DatabaseHelper.COLUMN_USER_ID;
+import static com.example.group316weatherappproject.DatabaseHelper.TABLE_CITIES;
+import static com.example.group316weatherappproject.DatabaseHelper.TABLE_USERS;
+
+/**
+ * Queries on a user's saved cities.
+ * Each one resolves the username to a user id inside the same statement,
+ * through a join or subquery on the unique username index, instead of
+ * reading the whole user row first. Listing is answered from the covering
+ * index on cities(user_id, city_name, latitude, longitude) alone.
+ * Inserts and deletes reuse statements compiled once per open database.
+ */
+public class CityDao {
+
+    private static final String TAG = "CityDao";
+
+    // Inserts nothing when the username is unknown
+    private static final String INSERT_CITY = "INSERT INTO " + TABLE_CITIES + "("
+            + COLUMN_CITY_NAME + ", " + COLUMN_USER_ID + ", " + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE + ")"
+            + " SELECT ?, " + COLUMN_ID + ", ?, ? FROM " + TABLE_USERS + " WHERE " + COLUMN_USERNAME + " = ?";
+
+    // Ordered by id so cities stay in the order they were added
+    private static final String SELECT_CITIES = "SELECT c." + COLUMN_CITY_NAME + ", c." + COLUMN_LATITUDE
+            + ", c." + COLUMN_LONGITUDE
+            + " FROM " + TABLE_CITIES + " c JOIN " + TABLE_USERS + " u ON c." + COLUMN_USER_ID + " = u." + COLUMN_ID
+            + " WHERE u." + COLUMN_USERNAME + " = ?"
+            + " ORDER BY c." + COLUMN_CITY_ID;
+
+    private static final String DELETE_CITY = "DELETE FROM " + TABLE_CITIES
+            + " WHERE " + COLUMN_USER_ID + " = (SELECT " + COLUMN_ID + " FROM " + TABLE_USERS
+            + " WHERE " + COLUMN_USERNAME + " = ?)"
+            + " AND " + COLUMN_CITY_NAME + " = ?";
+
+    // Column indices of SELECT_CITIES
+    private static final int INDEX_NAME = 0;
+    private static final int INDEX_LATITUDE = 1;
+    private static final int INDEX_LONGITUDE = 2;
+
+    private final SQLiteOpenHelper helper;
+    private final StatementCache statements;
+
+    // Constructor for a DAO over the app database
+    public CityDao(SQLiteOpenHelper helper) {
+        this.helper = helper;
+        this.statements = new StatementCache(helper);
+    }
+
+    /**
+     * Add a city for a user
+     * @return true if added, false if the user is unknown or already has the city
+     */
+    public boolean addCity(String username, String cityName, double latitude, double longitude) {
+        username = username.toLowerCase();
+        // Normalize city name to lowercase for consistent storage and duplicate checking
+        cityName = cityName.toLowerCase();
+
+        SQLiteStatement statement = statements.get(INSERT_CITY);
+        synchronized (statement) {
+            try {
+                statement.bindString(1, cityName);
+                statement.bindDouble(2, latitude);
+                statement.bindDouble(3, longitude);
+                statement.bindString(4, username);
+                long rowId = statement.executeInsert();
+                boolean ok = rowId != -1;
+                Log.d(TAG, "addCity for user " + username + " city " + cityName + " at (" + latitude + ", " + longitude + ") rowId=" + rowId + " success=" + ok);
+                return ok;
+            } catch (SQLiteConstraintException e) {
+                // This happens when trying to add a duplicate city (UNIQUE constraint violation)
+                Log.w(TAG, "addCity: duplicate city for user " + username + " city " + cityName);
+                return false;
+            } finally {
+                statement.clearBindings();
+            }
+        }
+    }
+
+    /**
+     * Get all cities for a user, in the order they were added
+     */
+    public List<City> getCitiesForUser(String username) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        username = username.toLowerCase();
+        List<City> cities = new ArrayList<>();
+
+        try (Cursor cursor = db.rawQuery(SELECT_CITIES, new String[]{username})) {
+            while (cursor.moveToNext()) {
+                cities.add(new City(cursor.getString(INDEX_NAME),
+                        cursor.getDouble(INDEX_LATITUDE), cursor.getDouble(INDEX_LONGITUDE)));
+            }
+        }
+
+        Log.d(TAG, "getCitiesForUser " + username + " found " + cities.size() + " cities");
+        return cities;
+    }
+
+    /**
+     * Delete a city for a user
+     * @return true if a city was deleted
+     */
+    public boolean deleteCity(String username, String cityName) {
+        username = username.toLowerCase();
+        // Normalize city name to lowercase for consistent lookup
+        cityName = cityName.toLowerCase();
+
+        SQLiteStatement statement = statements.get(DELETE_CITY);
+        synchronized (statement) {
+            try {
+                statement.bindString(1, username);
+                statement.bindString(2, cityName);
+                int rowsDeleted = statement.executeUpdateDelete();
+                boolean ok = rowsDeleted > 0;
+                Log.d(TAG, "deleteCity for user " + username + " city " + cityName + " rowsDeleted=" + rowsDeleted + " success=" + ok);
+                return ok;
+            } finally {
+                statement.clearBindings();
+            }
+        }
+    }
+
+    /**
+     * Release the compiled statements; call before closing the database.
+     */
+    public void close() {
+        statements.close();
+    }
+}
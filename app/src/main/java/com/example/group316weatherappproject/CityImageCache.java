@@ -0,0 +1,169 @@
+package com.example.group316weatherappproject;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Two-tier cache for generated city images.
+ * Decoded bitmaps are kept in a memory LRU sized in bytes. The encoded images
+ * are kept in a size-bounded directory under the app cache dir, from which the
+ * least recently used files are removed first.
+ * Keys come from {@link WeatherBucket#imageKey}, so an image is reused for any
+ * visit with the same city, conditions, temperature band and time of day.
+ */
+public class CityImageCache {
+
+    private static final String TAG = "CityImageCache";
+
+    private static final String DIRECTORY = "city_images";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Generated images are 1-2 MB encoded, so this keeps a few dozen
+    private static final long MAX_DISK_BYTES = 32L * 1024 * 1024;
+
+    private static volatile CityImageCache instance;
+
+    private final LruCache<String, Bitmap> memoryCache;
+    private final File directory;
+    private final Object diskLock = new Object();
+
+    /**
+     * Returns the cache shared by all screens, creating it on first use.
+     */
+    public static CityImageCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (CityImageCache.class) {
+                if (instance == null) {
+                    File directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+                    // Up to an eighth of the heap for decoded bitmaps
+                    int memoryBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+                    instance = new CityImageCache(directory, memoryBytes);
+                }
+            }
+        }
+        return instance;
+    }
+
+    private CityImageCache(File directory, int memoryBytes) {
+        this.directory = directory;
+        this.memoryCache = new LruCache<String, Bitmap>(memoryBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Could not create " + directory);
+        }
+        // Remove downloads left unfinished by an earlier process
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(TEMP_SUFFIX)) file.delete();
+            }
+        }
+    }
+
+    /**
+     * Returns the decoded image for the key, or null if it is not in memory.
+     * Cheap enough to call on the main thread.
+     */
+    public Bitmap getFromMemory(String key) {
+        return memoryCache.get(key);
+    }
+
+    /**
+     * Decodes the stored image for the key at the given view size and keeps it in memory.
+     * Returns null if there is no stored image. Call from a background thread.
+     */
+    public Bitmap getFromDisk(String key, int reqWidth, int reqHeight) {
+        File file = fileFor(key);
+        synchronized (diskLock) {
+            if (!file.isFile()) return null;
+            // Mark as recently used so trimming keeps it
+            file.setLastModified(System.currentTimeMillis());
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            Bitmap bitmap = InlineImageDecoder.decodeScaled(in, reqWidth, reqHeight);
+            if (bitmap != null) {
+                memoryCache.put(key, bitmap);
+            }
+            return bitmap;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read cached image " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates an empty file in the cache directory to receive an image as it downloads.
+     * Pass it to {@link #put} once complete, or delete it on failure.
+     */
+    public File createTempFile() throws IOException {
+        return File.createTempFile("image", TEMP_SUFFIX, directory);
+    }
+
+    /**
+     * Stores a decoded image in memory and its encoded file on disk under the key,
+     * then removes the least recently used files if the directory is over its limit.
+     */
+    public void put(String key, Bitmap bitmap, File encoded) {
+        memoryCache.put(key, bitmap);
+
+        synchronized (diskLock) {
+            File file = fileFor(key);
+            if (file.exists()) file.delete();
+            if (!encoded.renameTo(file)) {
+                Log.w(TAG, "Failed to store image for " + key);
+                encoded.delete();
+                return;
+            }
+            trimToSize();
+        }
+    }
+
+    // Deletes the oldest stored images until the directory fits within MAX_DISK_BYTES
+    private void trimToSize() {
+        File[] files = directory.listFiles((dir, name) -> !name.endsWith(TEMP_SUFFIX));
+        if (files == null) return;
+
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= MAX_DISK_BYTES) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (total <= MAX_DISK_BYTES) break;
+            long length = file.length();
+            if (file.delete()) total -= length;
+        }
+    }
+
+    // Maps a key to a stable file name that is safe for any city name
+    private File fileFor(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : hash) name.append(String.format("%02x", b));
+            return new File(directory, name.toString());
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is available on every Android version
+            throw new IllegalStateException(e);
+        }
+    }
+}
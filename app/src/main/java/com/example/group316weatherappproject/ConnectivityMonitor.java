@@ -0,0 +1,125 @@
+package com.example.group316weatherappproject;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks whether the device has a usable default network.
+ * The HTTP stack asks {@link #isOnline()} before every call, so requests fail
+ * at once while offline instead of waiting for a timeout. Screens can queue
+ * a refresh with {@link #runWhenOnline}, which runs when the network returns.
+ */
+public class ConnectivityMonitor {
+
+    private static final String TAG = "ConnectivityMonitor";
+
+    private static volatile ConnectivityMonitor instance;
+
+    // Refreshes waiting for the network, by key so each is queued once
+    private final Map<String, Runnable> pending = new LinkedHashMap<>();
+    private volatile boolean online;
+
+    private ConnectivityMonitor(Context context) {
+        ConnectivityManager manager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        online = hasInternet(manager, manager.getActiveNetwork());
+        manager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                setOnline(true);
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                setOnline(capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET));
+            }
+
+            @Override
+            public void onLost(Network network) {
+                setOnline(false);
+            }
+        });
+    }
+
+    /**
+     * Returns the process-wide monitor, registering for network changes on first use.
+     */
+    public static ConnectivityMonitor getInstance(Context context) {
+        ConnectivityMonitor result = instance;
+        if (result == null) {
+            synchronized (ConnectivityMonitor.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ConnectivityMonitor(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the device has a network. Reports online until a screen has
+     * started the monitor, so nothing is refused before the state is known.
+     */
+    public static boolean isOnline() {
+        ConnectivityMonitor monitor = instance;
+        return monitor == null || monitor.online;
+    }
+
+    private static boolean hasInternet(ConnectivityManager manager, Network network) {
+        if (network == null) return false;
+        NetworkCapabilities capabilities = manager.getNetworkCapabilities(network);
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+
+    /**
+     * Runs a refresh on the network pool when the network returns, unless the
+     * scope is cancelled first. A refresh queued again under the same key
+     * replaces the earlier one.
+     */
+    public void runWhenOnline(TaskScope scope, String key, Runnable refresh) {
+        Runnable entry = () -> {
+            if (scope.isActive()) refresh.run();
+        };
+        synchronized (pending) {
+            pending.put(key, entry);
+        }
+        // Do not hold on to a closed screen until the network returns
+        scope.doOnCancel(() -> {
+            synchronized (pending) {
+                pending.remove(key, entry);
+            }
+        });
+        // The network may have come back while this was being queued
+        if (online) flushPending();
+    }
+
+    private void setOnline(boolean nowOnline) {
+        boolean changed = online != nowOnline;
+        online = nowOnline;
+        if (!changed) return;
+
+        Log.d(TAG, nowOnline ? "Network available" : "Network lost");
+        if (nowOnline) flushPending();
+    }
+
+    // Starts every queued refresh
+    private void flushPending() {
+        List<Runnable> refreshes;
+        synchronized (pending) {
+            refreshes = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (Runnable refresh : refreshes) {
+            AppExecutors.network().submit(PriorityExecutor.Priority.BACKGROUND, refresh);
+        }
+    }
+}
@@ -23,8 +23,8 @@ import com.example.group316weatherappproject.ThemeErrorHandler;
 
 import java.io.IOException;
 
+import okhttp3.Call;
 import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -35,11 +35,14 @@ public class CreateAccountActivity extends AppCompatActivity {
     private static final String TAG = "CreateAccount";
     private EditText editUsername, editPassword, editTheme;
     private Button createAccountButton;
-    private DatabaseHelper databaseHelper;
+    private AsyncDatabase database;
     private SessionManager sessionManager;
 
+    // Theme generation, cancelled when the screen closes
+    private final TaskScope tasks = TaskScope.bindTo(this);
+
     // LLM helpers
-    private final OkHttpClient http = new OkHttpClient();
+    private final Call.Factory http = tasks.track(HttpClientProvider.getClient(ApiEndpoint.GEMINI_TEXT));
     private final Gson gson = new Gson();
     private static final String GEMINI_ENDPOINT = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:generateContent?key=";
     private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
@@ -56,8 +59,8 @@ public class CreateAccountActivity extends AppCompatActivity {
             return insets;
         });
 
-        // Initialize database helper and session manager
-        databaseHelper = new DatabaseHelper(this);
+        // Initialize database access and session manager
+        database = new AsyncDatabase(DatabaseHelper.getInstance(this), tasks);
         sessionManager = new SessionManager(this);
 
         // Get UI elements
@@ -111,22 +114,37 @@ public class CreateAccountActivity extends AppCompatActivity {
             return;
         }
 
-        // Register user
+        // Register user off the main thread; disable button while registering and generating/applying theme
         Log.d(TAG, "registering user: " + username);
-        boolean success = databaseHelper.registerUser(username, password);
-        Log.d(TAG, "registerUser returned: " + success);
+        createAccountButton.setEnabled(false);
+        database.registerUser(username, password, new AsyncDatabase.Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean success) {
+                Log.d(TAG, "registerUser returned: " + success);
 
-        if (!success) {
-            Toast.makeText(this, "Username already exists", Toast.LENGTH_SHORT).show();
-            return;
-        }
+                if (!success) {
+                    createAccountButton.setEnabled(true);
+                    Toast.makeText(CreateAccountActivity.this, "Username already exists", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                generateThemeForNewAccount(username, themeInput);
+            }
 
-        // Disable button while generating/applying theme
-        createAccountButton.setEnabled(false);
+            @Override
+            public void onError(Exception error) {
+                createAccountButton.setEnabled(true);
+                Toast.makeText(CreateAccountActivity.this, "Could not create account, please try again",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Generates the new account's theme, saves it and opens the home screen
+    private void generateThemeForNewAccount(String username, String themeInput) {
         Toast.makeText(this, "Generating personalized theme...", Toast.LENGTH_SHORT).show();
 
         // Do theme generation/update off the UI thread
-        new Thread(() -> {
+        tasks.launch(() -> {
             Theme spec = null;
 
             // If input looks like a hex color, build a simple theme immediately
@@ -152,7 +170,7 @@ public class CreateAccountActivity extends AppCompatActivity {
                     ThemeErrorHandler.ThemeError error = ThemeErrorHandler.classifyError(e);
                     ThemeErrorHandler.logThemeGenerationFailure(themeInput, error, e);
 
-                    runOnUiThread(() -> {
+                    tasks.runOnUiThread(() -> {
                         Toast.makeText(this, ThemeErrorHandler.getUserFriendlyMessage(error),
                                 Toast.LENGTH_LONG).show();
                     });
@@ -177,7 +195,7 @@ public class CreateAccountActivity extends AppCompatActivity {
 
             // Persist theme to SharedPreferences and update DB + session on UI thread
             Theme finalSpec = spec;
-            runOnUiThread(() -> {
+            tasks.runOnUiThread(() -> {
                 try {
                     Log.d(TAG, "Saving theme via ThemeManager");
                     ThemeManager.saveTheme(CreateAccountActivity.this, finalSpec);
@@ -189,9 +207,9 @@ public class CreateAccountActivity extends AppCompatActivity {
                     applyEnhancedThemeEffects(finalSpec);
 
                     Log.d(TAG, "Updating DB for user " + username);
-                    boolean dbBg = databaseHelper.updateThemeColor(username, finalSpec.background);
-                    boolean dbText = databaseHelper.updateTextColor(username, finalSpec.text);
-                    Log.d(TAG, "DB update themeColor=" + dbBg + " textColor=" + dbText);
+                    // Saved on the database write thread, even after this screen finishes
+                    database.updateThemeColor(username, finalSpec.background, null);
+                    database.updateTextColor(username, finalSpec.text, null);
 
                     Log.d(TAG, "Creating session for user " + username);
                     sessionManager.createLoginSession(username, finalSpec.background, finalSpec.text);
@@ -214,7 +232,7 @@ public class CreateAccountActivity extends AppCompatActivity {
                     finish();
                 }
             });
-        }).start();
+        });
     }
 
     // Creates a fallback theme based on keyword matching when Gemini API is unavailable
@@ -3,44 +3,183 @@ package com.example.group316weatherappproject;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
 import android.util.Log;
 
 import com.example.group316weatherappproject.database.User;
 
-import org.mindrot.jbcrypt.BCrypt;
-
 // Helper class for managing the SQLite database
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "WeatherApp.db";
-    private static final int DATABASE_VERSION = 4;
+    private static final int DATABASE_VERSION = 7;
 
     // Users table
-    private static final String TABLE_USERS = "users";
-    private static final String COLUMN_ID = "id";
-    private static final String COLUMN_USERNAME = "username";
+    static final String TABLE_USERS = "users";
+    static final String COLUMN_ID = "id";
+    static final String COLUMN_USERNAME = "username";
     private static final String COLUMN_PASSWORD_HASH = "password_hash";
     private static final String COLUMN_THEME_COLOR = "theme_color";
     private static final String COLUMN_TEXT_COLOR = "text_color";
 
     // Cities table
-    private static final String TABLE_CITIES = "cities";
-    private static final String COLUMN_CITY_ID = "city_id";
-    private static final String COLUMN_CITY_NAME = "city_name";
-    private static final String COLUMN_USER_ID = "user_id";
-    private static final String COLUMN_LATITUDE = "latitude";
-    private static final String COLUMN_LONGITUDE = "longitude";
+    static final String TABLE_CITIES = "cities";
+    static final String COLUMN_CITY_ID = "city_id";
+    static final String COLUMN_CITY_NAME = "city_name";
+    static final String COLUMN_USER_ID = "user_id";
+    static final String COLUMN_LATITUDE = "latitude";
+    static final String COLUMN_LONGITUDE = "longitude";
+
+    // Covers listing a user's cities, so the query never touches the table rows
+    private static final String CREATE_CITIES_COVERING_INDEX = "CREATE INDEX IF NOT EXISTS idx_cities_user_covering ON "
+            + TABLE_CITIES + "(" + COLUMN_USER_ID + ", " + COLUMN_CITY_NAME + ", " + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE + ")";
+
+    // Weather cache table (one row per city + coordinates)
+    private static final String TABLE_WEATHER_CACHE = "weather_cache";
+    private static final String COLUMN_PAYLOAD = "payload";
+    private static final String COLUMN_FETCHED_AT = "fetched_at";
+    private static final String COLUMN_TTL_MS = "ttl_ms";
+
+    private static final String CREATE_WEATHER_CACHE_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE_WEATHER_CACHE + "("
+            + COLUMN_CITY_NAME + " TEXT NOT NULL,"
+            + COLUMN_LATITUDE + " REAL NOT NULL,"
+            + COLUMN_LONGITUDE + " REAL NOT NULL,"
+            + COLUMN_PAYLOAD + " TEXT NOT NULL,"
+            + COLUMN_FETCHED_AT + " INTEGER NOT NULL,"
+            + COLUMN_TTL_MS + " INTEGER NOT NULL,"
+            + "PRIMARY KEY(" + COLUMN_CITY_NAME + ", " + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE + ")"
+            + ")";
+
+    // Insights cache table (generated question lists and answers per weather bucket)
+    private static final String TABLE_INSIGHTS_CACHE = "insights_cache";
+    private static final String COLUMN_BUCKET_KEY = "bucket_key";
+    private static final String COLUMN_QUESTION = "question";
+    private static final String COLUMN_RESPONSE = "response";
+    private static final String COLUMN_CREATED_AT = "created_at";
+    private static final String COLUMN_LAST_ACCESS = "last_access";
+
+    // Stale observations are still shown while refreshing, but rows older than this are deleted
+    static final long MAX_WEATHER_CACHE_AGE_MS = 24 * 60 * 60 * 1000L;
+
+    // Least recently used Insights entries beyond this count are evicted
+    private static final int MAX_INSIGHTS_ENTRIES = 200;
+
+    private static final String CREATE_INSIGHTS_CACHE_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE_INSIGHTS_CACHE + "("
+            + COLUMN_BUCKET_KEY + " TEXT NOT NULL,"
+            + COLUMN_QUESTION + " TEXT NOT NULL,"
+            + COLUMN_RESPONSE + " TEXT NOT NULL,"
+            + COLUMN_CREATED_AT + " INTEGER NOT NULL,"
+            + COLUMN_LAST_ACCESS + " INTEGER NOT NULL,"
+            + "PRIMARY KEY(" + COLUMN_BUCKET_KEY + ", " + COLUMN_QUESTION + ")"
+            + ")";
+
+    private static final String CREATE_INSIGHTS_ACCESS_INDEX = "CREATE INDEX IF NOT EXISTS idx_insights_last_access ON "
+            + TABLE_INSIGHTS_CACHE + "(" + COLUMN_LAST_ACCESS + ")";
+
+    // Hot user queries, compiled once through the statement cache
+    private static final String SELECT_USERNAME_EXISTS = "SELECT EXISTS(SELECT 1 FROM " + TABLE_USERS
+            + " WHERE " + COLUMN_USERNAME + " = ?)";
+    private static final String UPDATE_THEME_COLOR = "UPDATE " + TABLE_USERS + " SET " + COLUMN_THEME_COLOR
+            + " = ? WHERE " + COLUMN_USERNAME + " = ?";
+    private static final String UPDATE_PASSWORD_HASH = "UPDATE " + TABLE_USERS + " SET " + COLUMN_PASSWORD_HASH
+            + " = ? WHERE " + COLUMN_USERNAME + " = ?";
+    private static final String UPDATE_TEXT_COLOR = "UPDATE " + TABLE_USERS + " SET " + COLUMN_TEXT_COLOR
+            + " = ? WHERE " + COLUMN_USERNAME + " = ?";
+
+    // Reads a whole user row; the INDEX_ constants are its column indices
+    private static final String SELECT_USER = "SELECT " + COLUMN_ID + ", " + COLUMN_USERNAME + ", "
+            + COLUMN_PASSWORD_HASH + ", " + COLUMN_THEME_COLOR + ", " + COLUMN_TEXT_COLOR
+            + " FROM " + TABLE_USERS + " WHERE " + COLUMN_USERNAME + " = ?";
+    private static final int INDEX_ID = 0;
+    private static final int INDEX_USERNAME = 1;
+    private static final int INDEX_PASSWORD_HASH = 2;
+    private static final int INDEX_THEME_COLOR = 3;
+    private static final int INDEX_TEXT_COLOR = 4;
 
     // Default colors
     private static final String DEFAULT_THEME_COLOR = "#6750a5";
     private static final String DEFAULT_TEXT_COLOR = "#000000";
 
-    // Constructs the database helper for the WeatherApp
+    // Pages the write-ahead log may grow to before it is copied back into the database (~1 MB)
+    private static final int WAL_AUTOCHECKPOINT_PAGES = 256;
+
+    // Idle read connections are closed after this long
+    private static final long IDLE_CONNECTION_TIMEOUT_MS = 30_000;
+
+    private static volatile DatabaseHelper instance;
+
+    // City queries that resolve the user in the same statement
+    private final CityDao cityDao = new CityDao(this);
+
+    // Compiled statements for the user queries above
+    private final StatementCache statements = new StatementCache(this);
+
+    // BCrypt at this device's calibrated cost
+    private final PasswordHasher passwordHasher;
+
+    /**
+     * Write-ahead logging lets reads run on a pool of read connections while
+     * a single connection writes, so background cache writes never block the
+     * city list. The pool is bounded by the platform (usually 4 connections).
+     */
     public DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        passwordHasher = PasswordHasher.getInstance(context);
+        setWriteAheadLoggingEnabled(true);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            setIdleConnectionTimeout(IDLE_CONNECTION_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * Returns the helper shared by all screens, so they share one connection pool.
+     */
+    public static DatabaseHelper getInstance(Context context) {
+        DatabaseHelper result = instance;
+        if (result == null) {
+            synchronized (DatabaseHelper.class) {
+                result = instance;
+                if (result == null) {
+                    result = new DatabaseHelper(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Set the durability and checkpoint policy on the writing connection
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // In WAL mode NORMAL only syncs on checkpoints; a crash can lose the
+        // last commits (cached weather and insights) but never corrupts the file
+        db.execSQL("PRAGMA synchronous=NORMAL");
+        DatabaseUtils.longForQuery(db, "PRAGMA wal_autocheckpoint=" + WAL_AUTOCHECKPOINT_PAGES, null);
+    }
+
+    // Release the compiled statements before the connections are closed
+    @Override
+    public synchronized void close() {
+        cityDao.close();
+        statements.close();
+        super.close();
+    }
+
+    /**
+     * Copy as much of the write-ahead log into the database as open readers
+     * allow, without waiting for them. Run off the main thread.
+     */
+    public void checkpoint() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(PASSIVE)", null);
+        cursor.moveToFirst();
+        cursor.close();
     }
 
     // Create the database tables
@@ -65,6 +204,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 + "UNIQUE(" + COLUMN_USER_ID + ", " + COLUMN_CITY_NAME + ")"
                 + ")";
         db.execSQL(CREATE_CITIES_TABLE);
+        db.execSQL(CREATE_CITIES_COVERING_INDEX);
+
+        db.execSQL(CREATE_WEATHER_CACHE_TABLE);
+        db.execSQL(CREATE_INSIGHTS_CACHE_TABLE);
+        db.execSQL(CREATE_INSIGHTS_ACCESS_INDEX);
     }
 
     // Upgrade the database schema
@@ -86,20 +230,34 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             db.execSQL("ALTER TABLE " + TABLE_CITIES + " ADD COLUMN " + COLUMN_LATITUDE + " REAL NOT NULL DEFAULT 0.0");
             db.execSQL("ALTER TABLE " + TABLE_CITIES + " ADD COLUMN " + COLUMN_LONGITUDE + " REAL NOT NULL DEFAULT 0.0");
         }
+        if (oldVersion < 5) {
+            // Add the weather cache table if upgrading from version 4 or lower
+            db.execSQL(CREATE_WEATHER_CACHE_TABLE);
+        }
+        if (oldVersion < 6) {
+            // Add the Insights cache table if upgrading from version 5 or lower
+            db.execSQL(CREATE_INSIGHTS_CACHE_TABLE);
+            db.execSQL(CREATE_INSIGHTS_ACCESS_INDEX);
+        }
+        if (oldVersion < 7) {
+            // Add the covering index for city lists if upgrading from version 6 or lower
+            db.execSQL(CREATE_CITIES_COVERING_INDEX);
+        }
+    }
+
+    // Get the hasher used for stored passwords
+    PasswordHasher getPasswordHasher() {
+        return passwordHasher;
     }
 
     /**
-     * Register a new user
+     * Register a new user. Hashes the password on the calling thread, so
+     * screens use AsyncDatabase, which hashes on the crypto worker.
      * @param username the username
      * @param password the plain text password
      * @return true if registration successful, false if username already exists
      */
     public boolean registerUser(String username, String password) {
-        SQLiteDatabase db = this.getWritableDatabase();
-
-        // Lowercase the username for consistency
-        username = username.toLowerCase();
-
         Log.d(TAG, "registerUser start for: " + username);
 
         // Check if username already exists
@@ -109,7 +267,18 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         // Hash the password using BCrypt
-        String passwordHash = BCrypt.hashpw(password, BCrypt.gensalt());
+        return insertUser(username, passwordHasher.hash(password));
+    }
+
+    /**
+     * Insert a new user whose password is already hashed
+     * @return true if inserted, false if the username already exists
+     */
+    boolean insertUser(String username, String passwordHash) {
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        // Lowercase the username for consistency
+        username = username.toLowerCase();
 
         ContentValues values = new ContentValues();
         values.put(COLUMN_USERNAME, username);
@@ -119,98 +288,122 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         long result = db.insert(TABLE_USERS, null, values);
         boolean ok = result != -1;
-        Log.d(TAG, "registerUser finished for: " + username + " result=" + result + " success=" + ok);
+        Log.d(TAG, "insertUser finished for: " + username + " result=" + result + " success=" + ok);
         return ok;
     }
 
     /**
-     * Authenticate a user
+     * Authenticate a user, rehashing the stored password if it was hashed
+     * at an outdated cost. Hashes on the calling thread; screens use
+     * AsyncDatabase, which rehashes after the login completes.
      * @param username the username
      * @param password the plain text password
      * @return User object if authentication successful, null otherwise
      */
     public User authenticateUser(String username, String password) {
-        SQLiteDatabase db = this.getReadableDatabase();
+        User user = checkPassword(username, password);
+        if (user != null && passwordHasher.needsRehash(user.getPasswordHash())) {
+            String passwordHash = passwordHasher.hash(password);
+            if (updatePasswordHash(username, passwordHash)) {
+                user.setPasswordHash(passwordHash);
+            }
+        }
+        return user;
+    }
 
-        // Lowercase the username for consistency
-        username = username.toLowerCase();
+    /**
+     * Check a user's password without rehashing
+     * @return User object if the password matches, null otherwise
+     */
+    User checkPassword(String username, String password) {
+        User user = getUserByUsername(username);
 
-        String[] columns = {COLUMN_ID, COLUMN_USERNAME, COLUMN_PASSWORD_HASH, COLUMN_THEME_COLOR, COLUMN_TEXT_COLOR};
-        String selection = COLUMN_USERNAME + " = ?";
-        String[] selectionArgs = {username};
+        // Verify password using BCrypt
+        if (user != null && passwordHasher.verify(password, user.getPasswordHash())) {
+            return user;
+        }
+        return null;
+    }
 
-        Cursor cursor = db.query(TABLE_USERS, columns, selection, selectionArgs, null, null, null);
+    /**
+     * Replace a user's stored password hash
+     */
+    boolean updatePasswordHash(String username, String passwordHash) {
+        // Lowercase the username for consistency
+        username = username.toLowerCase();
 
-        User user = null;
-        if (cursor.moveToFirst()) {
-            int id = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_ID));
-            String dbUsername = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_USERNAME));
-            String passwordHash = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PASSWORD_HASH));
-            String themeColor = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_THEME_COLOR));
-            String textColor = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_TEXT_COLOR));
-
-            // Verify password using BCrypt
-            if (BCrypt.checkpw(password, passwordHash)) {
-                user = new User(id, dbUsername, passwordHash, themeColor, textColor);
+        SQLiteStatement statement = statements.get(UPDATE_PASSWORD_HASH);
+        synchronized (statement) {
+            try {
+                statement.bindString(1, passwordHash);
+                statement.bindString(2, username);
+                int rowsAffected = statement.executeUpdateDelete();
+                Log.d(TAG, "updatePasswordHash for " + username + " rowsAffected=" + rowsAffected);
+                return rowsAffected > 0;
+            } finally {
+                statement.clearBindings();
             }
         }
-
-        cursor.close();
-        return user;
     }
 
     /**
      * Check if username already exists
      */
     private boolean usernameExists(String username) {
-        SQLiteDatabase db = this.getReadableDatabase();
         // Lowercase the username for consistency
         username = username.toLowerCase();
-        String[] columns = {COLUMN_ID};
-        String selection = COLUMN_USERNAME + " = ?";
-        String[] selectionArgs = {username};
-
-        Cursor cursor = db.query(TABLE_USERS, columns, selection, selectionArgs, null, null, null);
-        boolean exists = cursor.getCount() > 0;
-        cursor.close();
 
-        return exists;
+        SQLiteStatement statement = statements.get(SELECT_USERNAME_EXISTS);
+        synchronized (statement) {
+            try {
+                statement.bindString(1, username);
+                return statement.simpleQueryForLong() != 0;
+            } finally {
+                statement.clearBindings();
+            }
+        }
     }
 
     /**
      * Update user's theme color
      */
     public boolean updateThemeColor(String username, String themeColor) {
-        SQLiteDatabase db = this.getWritableDatabase();
         // Lowercase the username for consistency
         username = username.toLowerCase();
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_THEME_COLOR, themeColor);
-
-        String selection = COLUMN_USERNAME + " = ?";
-        String[] selectionArgs = {username};
 
-        int rowsAffected = db.update(TABLE_USERS, values, selection, selectionArgs);
-        Log.d(TAG, "updateThemeColor for " + username + " set " + themeColor + " rowsAffected=" + rowsAffected);
-        return rowsAffected > 0;
+        SQLiteStatement statement = statements.get(UPDATE_THEME_COLOR);
+        synchronized (statement) {
+            try {
+                statement.bindString(1, themeColor);
+                statement.bindString(2, username);
+                int rowsAffected = statement.executeUpdateDelete();
+                Log.d(TAG, "updateThemeColor for " + username + " set " + themeColor + " rowsAffected=" + rowsAffected);
+                return rowsAffected > 0;
+            } finally {
+                statement.clearBindings();
+            }
+        }
     }
 
     /**
      * Update user's text color
      */
     public boolean updateTextColor(String username, String textColor) {
-        SQLiteDatabase db = this.getWritableDatabase();
         // Lowercase the username for consistency
         username = username.toLowerCase();
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_TEXT_COLOR, textColor);
-
-        String selection = COLUMN_USERNAME + " = ?";
-        String[] selectionArgs = {username};
 
-        int rowsAffected = db.update(TABLE_USERS, values, selection, selectionArgs);
-        Log.d(TAG, "updateTextColor for " + username + " set " + textColor + " rowsAffected=" + rowsAffected);
-        return rowsAffected > 0;
+        SQLiteStatement statement = statements.get(UPDATE_TEXT_COLOR);
+        synchronized (statement) {
+            try {
+                statement.bindString(1, textColor);
+                statement.bindString(2, username);
+                int rowsAffected = statement.executeUpdateDelete();
+                Log.d(TAG, "updateTextColor for " + username + " set " + textColor + " rowsAffected=" + rowsAffected);
+                return rowsAffected > 0;
+            } finally {
+                statement.clearBindings();
+            }
+        }
     }
 
     /**
@@ -222,24 +415,14 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         // Lowercase the username for consistency
         username = username.toLowerCase();
 
-        String[] columns = {COLUMN_ID, COLUMN_USERNAME, COLUMN_PASSWORD_HASH, COLUMN_THEME_COLOR, COLUMN_TEXT_COLOR};
-        String selection = COLUMN_USERNAME + " = ?";
-        String[] selectionArgs = {username};
-
-        Cursor cursor = db.query(TABLE_USERS, columns, selection, selectionArgs, null, null, null);
-
         User user = null;
-        if (cursor.moveToFirst()) {
-            int id = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_ID));
-            String dbUsername = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_USERNAME));
-            String passwordHash = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PASSWORD_HASH));
-            String themeColor = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_THEME_COLOR));
-            String textColor = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_TEXT_COLOR));
-
-            user = new User(id, dbUsername, passwordHash, themeColor, textColor);
+        try (Cursor cursor = db.rawQuery(SELECT_USER, new String[]{username})) {
+            if (cursor.moveToFirst()) {
+                user = new User(cursor.getInt(INDEX_ID), cursor.getString(INDEX_USERNAME),
+                        cursor.getString(INDEX_PASSWORD_HASH), cursor.getString(INDEX_THEME_COLOR),
+                        cursor.getString(INDEX_TEXT_COLOR));
+            }
         }
-
-        cursor.close();
         return user;
     }
 
@@ -248,106 +431,186 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return true if added successfully, false if user not found or city already exists
      */
     public boolean addCity(String username, String cityName, double latitude, double longitude) {
+        return cityDao.addCity(username, cityName, latitude, longitude);
+    }
+
+    /**
+     * Get all cities for a user
+     */
+    public java.util.List<City> getCitiesForUser(String username) {
+        return cityDao.getCitiesForUser(username);
+    }
+
+    /**
+     * Delete a city for a user
+     */
+    public boolean deleteCity(String username, String cityName) {
+        return cityDao.deleteCity(username, cityName);
+    }
+
+    /**
+     * Delete a user by username
+     * @return true if deleted, false if not found
+     */
+    public boolean deleteUser(String username) {
         SQLiteDatabase db = this.getWritableDatabase();
         username = username.toLowerCase();
-        // Normalize city name to lowercase for consistent storage and duplicate checking
+        String selection = COLUMN_USERNAME + " = ?";
+        String[] selectionArgs = {username};
+        int rowsDeleted = db.delete(TABLE_USERS, selection, selectionArgs);
+        return rowsDeleted > 0;
+    }
+
+    /**
+     * Get the cached weather observation for a city, or null if nothing is stored.
+     * Stale entries are still returned so the caller can show them while refreshing,
+     * up to MAX_WEATHER_CACHE_AGE_MS old.
+     */
+    public CachedWeather getCachedWeather(String cityName, double latitude, double longitude) {
+        SQLiteDatabase db = this.getReadableDatabase();
         cityName = cityName.toLowerCase();
+        long oldest = System.currentTimeMillis() - MAX_WEATHER_CACHE_AGE_MS;
 
-        // Get user ID
-        User user = getUserByUsername(username);
-        if (user == null) {
-            Log.w(TAG, "addCity: user not found -> " + username);
-            return false;
+        String[] columns = {COLUMN_PAYLOAD, COLUMN_FETCHED_AT, COLUMN_TTL_MS};
+        String selection = COLUMN_CITY_NAME + " = ? AND " + COLUMN_LATITUDE + " = ? AND " + COLUMN_LONGITUDE + " = ?"
+                + " AND " + COLUMN_FETCHED_AT + " >= ?";
+        String[] selectionArgs = {cityName, String.valueOf(roundCoordinate(latitude)),
+                String.valueOf(roundCoordinate(longitude)), String.valueOf(oldest)};
+
+        Cursor cursor = db.query(TABLE_WEATHER_CACHE, columns, selection, selectionArgs, null, null, null);
+
+        CachedWeather cached = null;
+        if (cursor.moveToFirst()) {
+            String payload = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PAYLOAD));
+            long fetchedAt = cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_FETCHED_AT));
+            long ttlMs = cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_TTL_MS));
+            cached = new CachedWeather(payload, fetchedAt, ttlMs);
         }
 
+        cursor.close();
+        // Only a fresh observation saves the network call
+        NetworkMetrics.getInstance().recordCacheLookup(ApiEndpoint.WEATHER, cached != null && cached.isFresh());
+        Log.d(TAG, "getCachedWeather " + cityName + " hit=" + (cached != null));
+        return cached;
+    }
+
+    /**
+     * Store (or replace) the latest weather observation for a city, then
+     * delete observations older than MAX_WEATHER_CACHE_AGE_MS.
+     * @param ttlMs how long the observation is considered fresh
+     */
+    public boolean putCachedWeather(String cityName, double latitude, double longitude, String payload, long ttlMs) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        cityName = cityName.toLowerCase();
+        long now = System.currentTimeMillis();
+
         ContentValues values = new ContentValues();
         values.put(COLUMN_CITY_NAME, cityName);
-        values.put(COLUMN_USER_ID, user.getId());
-        values.put(COLUMN_LATITUDE, latitude);
-        values.put(COLUMN_LONGITUDE, longitude);
-
+        values.put(COLUMN_LATITUDE, roundCoordinate(latitude));
+        values.put(COLUMN_LONGITUDE, roundCoordinate(longitude));
+        values.put(COLUMN_PAYLOAD, payload);
+        values.put(COLUMN_FETCHED_AT, now);
+        values.put(COLUMN_TTL_MS, ttlMs);
+
+        // One commit for the insert and the pruning, as for the Insights cache
+        boolean ok;
+        db.beginTransactionNonExclusive();
         try {
-            long result = db.insert(TABLE_CITIES, null, values);
-            boolean ok = result != -1;
-            Log.d(TAG, "addCity for user " + username + " city " + cityName + " at (" + latitude + ", " + longitude + ") result=" + result + " success=" + ok);
-            return ok;
-        } catch (android.database.sqlite.SQLiteConstraintException e) {
-            // This happens when trying to add a duplicate city (UNIQUE constraint violation)
-            Log.w(TAG, "addCity: duplicate city for user " + username + " city " + cityName);
-            return false;
+            long result = db.insertWithOnConflict(TABLE_WEATHER_CACHE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            ok = result != -1;
+
+            db.delete(TABLE_WEATHER_CACHE, COLUMN_FETCHED_AT + " < ?",
+                    new String[]{String.valueOf(now - MAX_WEATHER_CACHE_AGE_MS)});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
+
+        Log.d(TAG, "putCachedWeather " + cityName + " at (" + latitude + ", " + longitude + ") success=" + ok);
+        return ok;
     }
 
     /**
-     * Get all cities for a user
+     * Get a cached Insights response, or null if nothing is stored or it is older than ttlMs.
+     * Expired entries are deleted; hits are marked as recently used. This
+     * writes, so the app calls it through AsyncDatabase, on the write thread.
+     * @param bucketKey the city and weather bucket, see {@link WeatherBucket#insightsKey}
+     * @param question the question answered, or an empty string for the question list
      */
-    public java.util.List<City> getCitiesForUser(String username) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        username = username.toLowerCase();
-        java.util.List<City> cities = new java.util.ArrayList<>();
-
-        // Get user ID
-        User user = getUserByUsername(username);
-        if (user == null) {
-            Log.w(TAG, "getCitiesForUser: user not found -> " + username);
-            return cities;
-        }
+    String getCachedInsight(String bucketKey, String question, long ttlMs) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        long now = System.currentTimeMillis();
 
-        String[] columns = {COLUMN_CITY_NAME, COLUMN_LATITUDE, COLUMN_LONGITUDE};
-        String selection = COLUMN_USER_ID + " = ?";
-        String[] selectionArgs = {String.valueOf(user.getId())};
+        String[] columns = {COLUMN_RESPONSE, COLUMN_CREATED_AT};
+        String selection = COLUMN_BUCKET_KEY + " = ? AND " + COLUMN_QUESTION + " = ?";
+        String[] selectionArgs = {bucketKey, question};
 
-        Cursor cursor = db.query(TABLE_CITIES, columns, selection, selectionArgs, null, null, null);
+        Cursor cursor = db.query(TABLE_INSIGHTS_CACHE, columns, selection, selectionArgs, null, null, null);
 
+        String response = null;
+        boolean expired = false;
         if (cursor.moveToFirst()) {
-            do {
-                String cityName = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_CITY_NAME));
-                double latitude = cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_LATITUDE));
-                double longitude = cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_LONGITUDE));
-                cities.add(new City(cityName, latitude, longitude));
-            } while (cursor.moveToNext());
+            long createdAt = cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_CREATED_AT));
+            if (now - createdAt < ttlMs) {
+                response = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_RESPONSE));
+            } else {
+                expired = true;
+            }
         }
-
         cursor.close();
-        Log.d(TAG, "getCitiesForUser " + username + " found " + cities.size() + " cities");
-        return cities;
+
+        if (expired) {
+            db.delete(TABLE_INSIGHTS_CACHE, selection, selectionArgs);
+        } else if (response != null) {
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_LAST_ACCESS, now);
+            db.update(TABLE_INSIGHTS_CACHE, values, selection, selectionArgs);
+        }
+
+        NetworkMetrics.getInstance().recordCacheLookup(ApiEndpoint.GEMINI_TEXT, response != null);
+        Log.d(TAG, "getCachedInsight " + bucketKey + " hit=" + (response != null));
+        return response;
     }
 
     /**
-     * Delete a city for a user
+     * Store (or replace) a generated Insights response, then evict the least
+     * recently used entries beyond MAX_INSIGHTS_ENTRIES.
+     * @param question the question answered, or an empty string for the question list
      */
-    public boolean deleteCity(String username, String cityName) {
+    public boolean putCachedInsight(String bucketKey, String question, String response) {
         SQLiteDatabase db = this.getWritableDatabase();
-        username = username.toLowerCase();
-        // Normalize city name to lowercase for consistent lookup
-        cityName = cityName.toLowerCase();
+        long now = System.currentTimeMillis();
 
-        // Get user ID
-        User user = getUserByUsername(username);
-        if (user == null) {
-            Log.w(TAG, "deleteCity: user not found -> " + username);
-            return false;
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_BUCKET_KEY, bucketKey);
+        values.put(COLUMN_QUESTION, question);
+        values.put(COLUMN_RESPONSE, response);
+        values.put(COLUMN_CREATED_AT, now);
+        values.put(COLUMN_LAST_ACCESS, now);
+
+        // One commit for the insert and the eviction; readers keep their snapshot meanwhile
+        boolean ok;
+        db.beginTransactionNonExclusive();
+        try {
+            long result = db.insertWithOnConflict(TABLE_INSIGHTS_CACHE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            ok = result != -1;
+
+            db.execSQL("DELETE FROM " + TABLE_INSIGHTS_CACHE + " WHERE rowid NOT IN ("
+                    + "SELECT rowid FROM " + TABLE_INSIGHTS_CACHE
+                    + " ORDER BY " + COLUMN_LAST_ACCESS + " DESC LIMIT " + MAX_INSIGHTS_ENTRIES + ")");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
 
-        String selection = COLUMN_USER_ID + " = ? AND " + COLUMN_CITY_NAME + " = ?";
-        String[] selectionArgs = {String.valueOf(user.getId()), cityName};
-
-        int rowsDeleted = db.delete(TABLE_CITIES, selection, selectionArgs);
-        boolean ok = rowsDeleted > 0;
-        Log.d(TAG, "deleteCity for user " + username + " city " + cityName + " rowsDeleted=" + rowsDeleted + " success=" + ok);
+        Log.d(TAG, "putCachedInsight " + bucketKey + " success=" + ok);
         return ok;
     }
 
     /**
-     * Delete a user by username
-     * @return true if deleted, false if not found
+     * Round coordinates to ~11 m so the same city always maps to the same cache row
      */
-    public boolean deleteUser(String username) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        username = username.toLowerCase();
-        String selection = COLUMN_USERNAME + " = ?";
-        String[] selectionArgs = {username};
-        int rowsDeleted = db.delete(TABLE_USERS, selection, selectionArgs);
-        return rowsDeleted > 0;
+    private static double roundCoordinate(double value) {
+        return Math.round(value * 10000d) / 10000d;
     }
-}
\ No newline at end of file
+}
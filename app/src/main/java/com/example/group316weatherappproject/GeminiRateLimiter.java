@@ -0,0 +1,197 @@
+package com.example.group316weatherappproject;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that rate-limits and retries Gemini calls made
+ * through the shared client.
+ * Each model gets its own token bucket, so a burst of Insights calls does not
+ * eat the image model's quota. Responses with 429 or 503 are retried with
+ * jittered exponential backoff, waiting at least as long as the server's
+ * Retry-After. If the wait is too long, or a 429 persists, a
+ * {@link RateLimitException} is thrown instead.
+ * Requests to other hosts pass straight through.
+ */
+public class GeminiRateLimiter implements Interceptor {
+
+    private static final String TAG = "GeminiRateLimiter";
+
+    static final String GEMINI_HOST = "generativelanguage.googleapis.com";
+
+    private static final int MAX_RETRIES = 3;
+    private static final long BASE_BACKOFF_MS = 1000;
+    // Never block a caller longer than this for a token or a retry, nor past its deadline
+    private static final long MAX_WAIT_MS = 20_000;
+
+    // google.rpc.RetryInfo in the 429 body, e.g. "retryDelay": "17s"
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+)(?:\\.\\d+)?s\"");
+
+    private final String host;
+    private final long baseBackoffMillis;
+    private final Function<String, TokenBucket> bucketFactory;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    // Constructor for the limiter used by the shared client
+    public GeminiRateLimiter() {
+        this(GEMINI_HOST, BASE_BACKOFF_MS);
+    }
+
+    // Constructor with an explicit host and backoff, for tests
+    GeminiRateLimiter(String host, long baseBackoffMillis) {
+        this(host, baseBackoffMillis, GeminiRateLimiter::newBucket);
+    }
+
+    // Constructor with explicit per-model buckets, for tests
+    GeminiRateLimiter(String host, long baseBackoffMillis, Function<String, TokenBucket> bucketFactory) {
+        this.host = host;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.bucketFactory = bucketFactory;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!request.url().host().equals(host)) {
+            return chain.proceed(request);
+        }
+
+        String model = modelOf(request.url());
+        TokenBucket bucket = buckets.computeIfAbsent(model, bucketFactory);
+
+        long startedAt = System.currentTimeMillis();
+        for (int attempt = 0; ; attempt++) {
+            long wait = bucket.reserve(maxWaitMillis(chain, startedAt));
+            if (wait < 0) {
+                throw new RateLimitException("Gemini rate limit reached for " + model,
+                        bucket.millisUntilAvailable());
+            }
+            try {
+                sleep(chain, wait);
+            } catch (IOException e) {
+                // Never sent, so hand the token to the next caller
+                bucket.refund();
+                throw e;
+            }
+
+            Response response = chain.proceed(request);
+            int code = response.code();
+            if (code != 429 && code != 503) {
+                return response;
+            }
+
+            long retryAfter = retryAfterMillis(response);
+            if (retryAfter > 0) {
+                // Hold back every caller of this model, not just this one
+                bucket.pause(retryAfter);
+            }
+            long delay = Math.max(retryAfter, backoffMillis(attempt));
+            Log.w(TAG, model + " returned " + code + ", attempt " + (attempt + 1) + ", retry in " + delay + " ms");
+
+            if (attempt >= MAX_RETRIES || delay > maxWaitMillis(chain, startedAt) || chain.call().isCanceled()) {
+                if (code == 429) {
+                    response.close();
+                    throw new RateLimitException("Gemini rate limit exceeded for " + model, delay);
+                }
+                return response;
+            }
+
+            response.close();
+            sleep(chain, delay);
+        }
+    }
+
+    /**
+     * Burst size and sustained rate per model, kept under the API's per-minute quotas.
+     */
+    private static TokenBucket newBucket(String model) {
+        if (model.contains("image")) {
+            return new TokenBucket(2, 10 / 60.0);
+        }
+        return new TokenBucket(6, 15 / 60.0);
+    }
+
+    /**
+     * Model name from a path like /v1beta/models/gemini-2.5-flash-lite:generateContent.
+     */
+    static String modelOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (segments.get(i).equals("models")) {
+                String segment = segments.get(i + 1);
+                int colon = segment.indexOf(':');
+                return colon >= 0 ? segment.substring(0, colon) : segment;
+            }
+        }
+        return "default";
+    }
+
+    /**
+     * Full-jitter exponential backoff: a random delay between 0 and base * 2^attempt.
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = baseBackoffMillis << Math.min(attempt, 16);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Server-requested delay from the Retry-After header (seconds or HTTP date),
+     * else from RetryInfo in the error body. Returns 0 if neither is present.
+     */
+    static long retryAfterMillis(Response response) throws IOException {
+        String header = response.header("Retry-After");
+        if (header != null) {
+            try {
+                return Math.max(0, Long.parseLong(header.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                Date date = response.headers().getDate("Retry-After");
+                if (date != null) return Math.max(0, date.getTime() - System.currentTimeMillis());
+            }
+        }
+
+        // Peek so the body is still readable if the response is returned to the caller
+        Matcher matcher = RETRY_DELAY.matcher(response.peekBody(8192).string());
+        if (matcher.find()) {
+            return Long.parseLong(matcher.group(1)) * 1000;
+        }
+        return 0;
+    }
+
+    // Longest wait that still fits within the call's deadline, capped at MAX_WAIT_MS
+    private static long maxWaitMillis(Chain chain, long startedAt) {
+        long deadline = TimeUnit.NANOSECONDS.toMillis(chain.call().timeout().timeoutNanos());
+        if (deadline <= 0) return MAX_WAIT_MS;
+        long remaining = startedAt + deadline - System.currentTimeMillis();
+        return Math.max(0, Math.min(MAX_WAIT_MS, remaining));
+    }
+
+    // Waits before sending, giving up if the call is cancelled meanwhile
+    private static void sleep(Chain chain, long millis) throws IOException {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Gemini rate limit");
+        }
+        if (chain.call().isCanceled()) {
+            throw new IOException("Canceled");
+        }
+    }
+}
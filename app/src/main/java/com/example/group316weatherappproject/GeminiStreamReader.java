@@ -0,0 +1,82 @@
+package com.example.group316weatherappproject;
+
+import android.util.Log;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Reads a Gemini streamGenerateContent response sent as server-sent events
+ * (alt=sse). Each "data:" event carries a partial GenerateContentResponse.
+ * Its text parts are passed to the listener as soon as the event arrives,
+ * so the UI can render output before the model has finished.
+ */
+public class GeminiStreamReader {
+
+    private static final String TAG = "GeminiStreamReader";
+
+    /**
+     * Receives each new piece of generated text, on the reading thread.
+     */
+    public interface Listener {
+        void onText(String chunk);
+    }
+
+    private GeminiStreamReader() {}
+
+    /**
+     * Reads events until the stream ends and returns the full generated text.
+     */
+    public static String read(ResponseBody body, Listener listener) throws IOException {
+        BufferedSource source = body.source();
+        StringBuilder fullText = new StringBuilder();
+
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (!line.startsWith("data:")) continue;
+
+            String data = line.substring("data:".length()).trim();
+            if (data.isEmpty() || data.equals("[DONE]")) continue;
+
+            String text = extractText(data);
+            if (text != null && !text.isEmpty()) {
+                fullText.append(text);
+                listener.onText(text);
+            }
+        }
+        return fullText.toString();
+    }
+
+    /**
+     * Concatenates the text parts of the first candidate in one event.
+     */
+    private static String extractText(String eventJson) {
+        try {
+            JsonObject root = JsonParser.parseString(eventJson).getAsJsonObject();
+            JsonArray candidates = root.getAsJsonArray("candidates");
+            if (candidates == null || candidates.size() == 0) return null;
+
+            JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
+            if (content == null) return null;
+            JsonArray parts = content.getAsJsonArray("parts");
+            if (parts == null) return null;
+
+            StringBuilder text = new StringBuilder();
+            for (JsonElement part : parts) {
+                JsonElement t = part.getAsJsonObject().get("text");
+                if (t != null) text.append(t.getAsString());
+            }
+            return text.toString();
+        } catch (Exception e) {
+            Log.w(TAG, "Skipping unreadable stream event", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.group316weatherappproject;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Executes idempotent requests with hedging, to cut the tail latency caused
+ * by an occasional stalled connection.
+ * The request is sent once. If no response has arrived by the recent p95
+ * latency, a second copy is sent through a client with its own connection
+ * pool, so it cannot queue behind the stalled socket. Whichever response
+ * arrives first is returned and the other call is cancelled.
+ * The hedge delay tracks the latency of first attempts only. When the hedge
+ * wins, the first attempt is recorded as taking as long as it had run by
+ * then, a lower bound, rather than being dropped from the history.
+ * Hedges are limited by a budget: each request earns budgetRatio of a hedge,
+ * so a ratio of 0.1 adds at most about 10% extra calls, and 0 disables hedging.
+ */
+public class HedgedCall {
+
+    private static final String TAG = "HedgedCall";
+
+    // Hedge credit that can be saved up for a burst of slow calls
+    private static final double MAX_CREDIT = 3;
+
+    private final Call.Factory primary;
+    private final Call.Factory hedge;
+    private final double budgetRatio;
+    private final long minDelayMillis;
+    private final LatencyTracker latency;
+
+    // Hedges that may be sent right now; starts with one so a slow first call can be hedged
+    private double credit = 1;
+
+    /**
+     * @param primary client used for the first attempt
+     * @param hedge client with a separate connection pool, used for the hedge
+     * @param budgetRatio hedges earned per request, between 0 and 1
+     * @param minDelayMillis never hedge sooner than this, even if p95 is lower
+     * @param defaultDelayMillis hedge delay used until enough latencies are recorded
+     */
+    public HedgedCall(Call.Factory primary, Call.Factory hedge, double budgetRatio,
+                      long minDelayMillis, long defaultDelayMillis) {
+        this.primary = primary;
+        this.hedge = hedge;
+        this.budgetRatio = budgetRatio;
+        this.minDelayMillis = minDelayMillis;
+        this.latency = new LatencyTracker(100, defaultDelayMillis);
+    }
+
+    /**
+     * Executes the request on the calling thread, hedging it if it is slow.
+     * Only use for requests that are safe to send twice, such as GETs.
+     * The caller owns and must close the returned Response.
+     */
+    public Response execute(Request request) throws IOException {
+        return execute(request, null);
+    }
+
+    /**
+     * Executes the request like {@link #execute(Request)}, tracking both
+     * attempts in the screen's scope so they are cancelled with it.
+     */
+    public Response execute(Request request, TaskScope scope) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        boolean mayHedge = earnHedgeCredit();
+        Race race = new Race();
+        Outcome outcome = null;
+        Call primaryCall = track(scope, primary.newCall(request));
+        boolean primaryFailed = false;
+        try {
+            race.start(primaryCall);
+            int pending = 1;
+
+            long delay = hedgeDelayMillis();
+            outcome = race.poll(delay);
+            if (outcome == null && mayHedge && spendHedgeCredit()) {
+                Log.d(TAG, "No response after " + delay + " ms, hedging " + request.url().encodedPath());
+                race.start(track(scope, hedge.newCall(request)));
+                pending++;
+            }
+
+            if (outcome == null) outcome = race.take();
+            pending--;
+            // A failed attempt only loses if the other one can still answer
+            while (outcome.response == null && pending > 0) {
+                if (outcome.call == primaryCall) primaryFailed = true;
+                outcome = race.take();
+                pending--;
+            }
+        } finally {
+            race.finish(outcome);
+        }
+
+        if (outcome.response == null) throw outcome.error;
+        // The hedge's own latency never counts; a first attempt that lost had not answered yet
+        if (outcome.call == primaryCall || !primaryFailed) {
+            latency.record(System.currentTimeMillis() - startedAt);
+        }
+        return outcome.response;
+    }
+
+    // Tracks a call in the scope, if there is one
+    private static Call track(TaskScope scope, Call call) {
+        return scope != null ? scope.track(call) : call;
+    }
+
+    // Delay before the next hedge is sent, for tests
+    long hedgeDelayMillis() {
+        return Math.max(minDelayMillis, latency.percentile(0.95));
+    }
+
+    // Adds this request's share of a hedge, reporting whether hedging is enabled at all
+    synchronized boolean earnHedgeCredit() {
+        if (budgetRatio <= 0) return false;
+        credit = Math.min(MAX_CREDIT, credit + budgetRatio);
+        return true;
+    }
+
+    // Spends one hedge if enough credit has been earned
+    synchronized boolean spendHedgeCredit() {
+        if (credit < 1) return false;
+        credit -= 1;
+        return true;
+    }
+
+    /**
+     * Result of one attempt: a response or the error it failed with.
+     */
+    private static class Outcome {
+        final Call call;
+        final Response response;
+        final IOException error;
+
+        Outcome(Call call, Response response, IOException error) {
+            this.call = call;
+            this.response = response;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Collects the outcomes of the attempts for one request. Once a winner is
+     * chosen, other attempts are cancelled and any late response is closed.
+     */
+    private static class Race {
+        private final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        private final Object lock = new Object();
+        private final Call[] calls = new Call[2];
+        private int callCount;
+        private boolean finished;
+
+        // Enqueues an attempt and records its outcome when it completes
+        void start(Call call) {
+            calls[callCount++] = call;
+            call.enqueue(new Callback() {
+                @Override
+                public void onResponse(Call c, Response response) {
+                    offer(new Outcome(c, response, null));
+                }
+
+                @Override
+                public void onFailure(Call c, IOException e) {
+                    offer(new Outcome(c, null, e));
+                }
+            });
+        }
+
+        private void offer(Outcome outcome) {
+            synchronized (lock) {
+                if (finished) {
+                    if (outcome.response != null) outcome.response.close();
+                    return;
+                }
+                outcomes.add(outcome);
+            }
+        }
+
+        Outcome poll(long millis) throws IOException {
+            try {
+                return outcomes.poll(millis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw interrupted();
+            }
+        }
+
+        Outcome take() throws IOException {
+            try {
+                return outcomes.take();
+            } catch (InterruptedException e) {
+                throw interrupted();
+            }
+        }
+
+        // Cancels every attempt but the winner's and closes responses that lost
+        void finish(Outcome winner) {
+            synchronized (lock) {
+                finished = true;
+                for (int i = 0; i < callCount; i++) {
+                    // The winner's body has not been read yet, so its call must stay open
+                    if (winner == null || calls[i] != winner.call) calls[i].cancel();
+                }
+                for (Outcome loser : outcomes) {
+                    if (loser.response != null) loser.response.close();
+                }
+                outcomes.clear();
+            }
+        }
+
+        private IOException interrupted() {
+            Thread.currentThread().interrupt();
+            return new InterruptedIOException("Interrupted while waiting for response");
+        }
+    }
+}
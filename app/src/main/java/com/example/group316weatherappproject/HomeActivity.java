@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.location.Address;
 import android.location.Geocoder;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -24,24 +25,33 @@ import androidx.core.view.WindowInsetsCompat;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
-import android.net.Uri;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
 
 public class HomeActivity extends AppCompatActivity {
 
+    private static final String TAG = "HomeActivity";
+    // Report written in debug builds, read with: adb shell run-as <package> cat files/network_metrics.txt
+    private static final String NETWORK_METRICS_FILE = "network_metrics.txt";
+    private static final String GEOCODE_API_ENDPOINT = "https://maps.googleapis.com/maps/api/geocode/json";
+
     private SessionManager sessionManager;
     private DatabaseHelper databaseHelper;
+    private AsyncDatabase database;
+
+    // Geocoding and weather refreshes, cancelled when the screen closes
+    private final TaskScope tasks = TaskScope.bindTo(this);
 
     private Button settingsButton;
     private final ArrayList<City> cityList = new ArrayList<>();
@@ -53,6 +63,8 @@ public class HomeActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Start tracking the network so offline calls fail fast
+        ConnectivityMonitor.getInstance(this);
 
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_home);
@@ -73,7 +85,8 @@ public class HomeActivity extends AppCompatActivity {
 
         // Initialize managers
         sessionManager = new SessionManager(this);
-        databaseHelper = new DatabaseHelper(this);
+        databaseHelper = DatabaseHelper.getInstance(this);
+        database = new AsyncDatabase(databaseHelper, tasks);
 
         // If not logged in → go to login
         if (!sessionManager.isLoggedIn()) {
@@ -110,20 +123,19 @@ public class HomeActivity extends AppCompatActivity {
 
         Button addButton = findViewById(R.id.buttonAddLocation);
 
-        // Load saved cities
-        loadCitiesFromDatabase();
-
         // Adapter with delete + weather + map callbacks
         adapter = new CityAdapter(
                 cityList,
                 city -> {
                     // DELETE CITY
-                    if (databaseHelper.deleteCity(username, city.name)) {
-                        cityList.remove(city);
-                        adapter.notifyDataSetChanged();
-                    } else {
-                        Toast.makeText(this, "Failed to delete city", Toast.LENGTH_SHORT).show();
-                    }
+                    database.deleteCity(username, city.name, deleted -> {
+                        if (deleted) {
+                            cityList.remove(city);
+                            adapter.notifyDataSetChanged();
+                        } else {
+                            Toast.makeText(this, "Failed to delete city", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 },
                 city -> {
                     // OPEN WEATHER (now with lat/lon)
@@ -145,6 +157,29 @@ public class HomeActivity extends AppCompatActivity {
         recyclerView.setAdapter(adapter);
 
         addButton.setOnClickListener(v -> showAddCityDialog());
+
+        // Load saved cities, then fill in their current conditions
+        loadCitiesFromDatabase();
+    }
+
+    // --------------------------------------------------
+    // CHECKPOINTS THE DATABASE AND, IN DEBUG BUILDS, WRITES THE NETWORK TIMINGS TO A FILE WHENEVER THE APP LEAVES THE HOME SCREEN
+    // --------------------------------------------------
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Fold the write-ahead log back into the database while nothing is on screen
+        AppExecutors.databaseWrites().submit(PriorityExecutor.Priority.BACKGROUND, databaseHelper::checkpoint);
+        if (!BuildConfig.DEBUG) return;
+
+        File report = new File(getFilesDir(), NETWORK_METRICS_FILE);
+        AppExecutors.disk().submit(PriorityExecutor.Priority.BACKGROUND, () -> {
+            try {
+                NetworkMetrics.getInstance().dumpTo(report);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to write network metrics", e);
+            }
+        });
     }
 
     // --------------------------------------------------
@@ -187,7 +222,7 @@ public class HomeActivity extends AppCompatActivity {
 
                     // Otherwise, geocode the city name to get coordinates
                     Toast.makeText(this, "Looking up coordinates…", Toast.LENGTH_SHORT).show();
-                    new Thread(() -> {
+                    tasks.launch(() -> {
                         boolean resolved = false;
                         try {
                             // First try Android Geocoder
@@ -198,7 +233,7 @@ public class HomeActivity extends AppCompatActivity {
                                 Address addr = results.get(0);
                                 double lat = addr.getLatitude();
                                 double lon = addr.getLongitude();
-                                runOnUiThread(() -> addCityWithCoords(cityName, lat, lon));
+                                tasks.runOnUiThread(() -> addCityWithCoords(cityName, lat, lon));
                                 resolved = true;
                             }
                         } catch (IOException ignored) {
@@ -211,7 +246,7 @@ public class HomeActivity extends AppCompatActivity {
                                 String apiKey = getGoogleMapsApiKey();
                                 // Check if API key is available
                                 if (apiKey == null || apiKey.isEmpty()) {
-                                    runOnUiThread(() -> Toast.makeText(this, "No Google Maps API key configured", Toast.LENGTH_LONG).show());
+                                    tasks.runOnUiThread(() -> Toast.makeText(this, "No Google Maps API key configured", Toast.LENGTH_LONG).show());
                                     return;
                                 }
                                 // Perform geocoding request
@@ -219,15 +254,15 @@ public class HomeActivity extends AppCompatActivity {
                                 if (coords != null) {
                                     double lat = coords[0];
                                     double lon = coords[1];
-                                    runOnUiThread(() -> addCityWithCoords(cityName, lat, lon));
+                                    tasks.runOnUiThread(() -> addCityWithCoords(cityName, lat, lon));
                                 } else {
-                                    runOnUiThread(() -> Toast.makeText(this, "Couldn't find coordinates. Please enter latitude and longitude.", Toast.LENGTH_LONG).show());
+                                    tasks.runOnUiThread(() -> Toast.makeText(this, "Couldn't find coordinates. Please enter latitude and longitude.", Toast.LENGTH_LONG).show());
                                 }
                             } catch (Exception e) {
-                                runOnUiThread(() -> Toast.makeText(this, "Geocoding error: " + e.getMessage(), Toast.LENGTH_LONG).show());
+                                tasks.runOnUiThread(() -> Toast.makeText(this, "Geocoding error: " + e.getMessage(), Toast.LENGTH_LONG).show());
                             }
                         }
-                    }).start();
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -236,13 +271,17 @@ public class HomeActivity extends AppCompatActivity {
     // Helper to persist city and refresh UI
     private void addCityWithCoords(String cityName, double lat, double lon) {
         String username = sessionManager.getUsername();
-        if (databaseHelper.addCity(username, cityName, lat, lon)) {
-            cityList.add(new City(cityName, lat, lon));
-            adapter.notifyDataSetChanged();
-            Toast.makeText(this, "City added successfully", Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, "City already exists or failed to add", Toast.LENGTH_SHORT).show();
-        }
+        database.addCity(username, cityName, lat, lon, added -> {
+            if (added) {
+                City city = new City(cityName, lat, lon);
+                cityList.add(city);
+                adapter.notifyDataSetChanged();
+                Toast.makeText(this, "City added successfully", Toast.LENGTH_SHORT).show();
+                refreshCityWeather(Collections.singletonList(city));
+            } else {
+                Toast.makeText(this, "City already exists or failed to add", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     // Read the Google Maps API key from manifest meta-data
@@ -260,40 +299,24 @@ public class HomeActivity extends AppCompatActivity {
     }
 
     // Simple HTTP call to Google Geocoding API; returns [lat, lon] or null
+    // Uses the shared client's geocode timeouts, so a slow lookup fails within its deadline
     private double[] geocodeWithGoogleApi(String cityName, String apiKey) {
-        HttpURLConnection connection = null; // HTTP connection handle
-        BufferedReader reader = null; // Reader for the response stream
-        try {
-            // Encode the city name for use in URL query parameter
-            String encoded = URLEncoder.encode(cityName, "UTF-8");
-
-            // Build the Google Geocoding API URL with query parameters
-            Uri uri = Uri.parse("https://maps.googleapis.com/maps/api/geocode/json")
-                    .buildUpon()
-                    .appendQueryParameter("address", encoded) // address parameter
-                    .appendQueryParameter("key", apiKey)     // API key parameter
-                    .build();
-
-            // Open HTTP connection to the built URL
-            URL url = new URL(uri.toString());
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(8000);
-            connection.setReadTimeout(8000);
-            connection.connect();
-
-            // Get response code and choose input stream accordingly
-            int code = connection.getResponseCode();
-            InputStream is = (code >= 200 && code < 300) ? connection.getInputStream() : connection.getErrorStream();
-
-            // Read the entire response into a StringBuilder
-            reader = new BufferedReader(new InputStreamReader(is));
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
-            String json = sb.toString(); // Full JSON response as string
+        // Build the Google Geocoding API URL with query parameters
+        HttpUrl url = HttpUrl.get(GEOCODE_API_ENDPOINT)
+                .newBuilder()
+                .addQueryParameter("address", cityName) // address parameter
+                .addQueryParameter("key", apiKey)       // API key parameter
+                .build();
+
+        Request request = new Request.Builder()
+                .url(url)
+                .get()
+                .build();
+
+        Call call = tasks.track(HttpClientProvider.getClient(ApiEndpoint.GEOCODE).newCall(request));
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful() || response.body() == null) return null;
+            String json = response.body().string(); // Full JSON response as string
 
             // Parse JSON and extract lat/lon from first result
             JSONObject root = new JSONObject(json);
@@ -311,22 +334,38 @@ public class HomeActivity extends AppCompatActivity {
         } catch (Exception e) {
             // On any error return null to indicate failure
             return null;
-        } finally {
-            // Clean up: close reader and disconnect connection if they were opened
-            if (reader != null) try { reader.close(); } catch (IOException ignored) {}
-            if (connection != null) connection.disconnect();
         }
     }
 
     // --------------------------------------------------
-    // LOAD CITIES FROM THE DATABASE
+    // FETCHES CURRENT CONDITIONS FOR THE GIVEN CITIES AND UPDATES THEIR ROWS AS RESULTS ARRIVE
+    // --------------------------------------------------
+    private void refreshCityWeather(List<City> cities) {
+        if (cities.isEmpty()) return;
+
+        WeatherBatchFetcher fetcher = new WeatherBatchFetcher(
+                tasks.track(HttpClientProvider.getClient(ApiEndpoint.WEATHER)), database, BuildConfig.OPENWEATHER_API_KEY);
+
+        tasks.launch(AppExecutors.network(), PriorityExecutor.Priority.BACKGROUND, () -> fetcher.fetchAll(cities, (city, summary) -> tasks.runOnUiThread(() -> {
+            city.weatherSummary = summary;
+            int position = cityList.indexOf(city);
+            if (position >= 0) {
+                adapter.notifyItemChanged(position);
+            }
+        })));
+    }
+
+    // --------------------------------------------------
+    // LOAD CITIES FROM THE DATABASE, THEN REFRESH THEIR WEATHER IN ONE BATCH
     // --------------------------------------------------
     private void loadCitiesFromDatabase() {
         String username = sessionManager.getUsername();
-        List<City> storedCities = databaseHelper.getCitiesForUser(username);
-
-        cityList.clear();
-        cityList.addAll(storedCities);
+        database.getCitiesForUser(username, storedCities -> {
+            cityList.clear();
+            cityList.addAll(storedCities);
+            adapter.notifyDataSetChanged();
+            refreshCityWeather(new ArrayList<>(cityList));
+        });
     }
 
     // --------------------------------------------------
@@ -0,0 +1,141 @@
+package com.example.group316weatherappproject;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Holds the single OkHttpClient shared by every screen in the app.
+ * Sharing one client means one connection pool, dispatcher and thread pool,
+ * so a second request to OpenWeather or Gemini reuses the warm TLS connection
+ * instead of opening a new one.
+ */
+public class HttpClientProvider {
+
+    // Connection pool: idle sockets kept alive between screens
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    // Dispatcher limits for async calls
+    private static final int MAX_REQUESTS = 32;
+    private static final int MAX_REQUESTS_PER_HOST = 6;
+
+    // Send pings on idle HTTP/2 connections so Gemini streams are not dropped silently
+    private static final long HTTP2_PING_INTERVAL_SECONDS = 30;
+
+    // Hedging of OpenWeather GETs: at most ~10% extra calls, never sooner than 300 ms
+    private static final double WEATHER_HEDGE_BUDGET = 0.1;
+    private static final long WEATHER_HEDGE_MIN_DELAY_MS = 300;
+    private static final long WEATHER_HEDGE_DEFAULT_DELAY_MS = 1500;
+
+    // Hedges get their own small pool so they never ride a stalled connection
+    private static final int HEDGE_MAX_IDLE_CONNECTIONS = 2;
+
+    private static volatile OkHttpClient client;
+    private static final Map<ApiEndpoint, OkHttpClient> endpointClients = new EnumMap<>(ApiEndpoint.class);
+    private static volatile HedgedCall weatherCalls;
+    private static final CircuitBreakerInterceptor circuitBreakers = new CircuitBreakerInterceptor();
+
+    private HttpClientProvider() {}
+
+    /**
+     * Returns the process-wide HTTP client, creating it on first use.
+     */
+    public static OkHttpClient getClient() {
+        OkHttpClient result = client;
+        if (result == null) {
+            synchronized (HttpClientProvider.class) {
+                result = client;
+                if (result == null) {
+                    result = buildClient();
+                    client = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the client for calls to one endpoint, with that endpoint's
+     * {@link TimeoutPolicy}. It shares the connection pool, dispatcher and
+     * interceptors of the process-wide client.
+     */
+    public static OkHttpClient getClient(ApiEndpoint endpoint) {
+        synchronized (endpointClients) {
+            OkHttpClient result = endpointClients.get(endpoint);
+            if (result == null) {
+                result = TimeoutPolicy.forEndpoint(endpoint).applyTo(getClient().newBuilder()).build();
+                endpointClients.put(endpoint, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the hedged executor for OpenWeather current-conditions GETs.
+     * It is process-wide, so the latency history behind the hedge delay
+     * survives across screens.
+     */
+    public static HedgedCall getWeatherCalls() {
+        HedgedCall result = weatherCalls;
+        if (result == null) {
+            synchronized (HttpClientProvider.class) {
+                result = weatherCalls;
+                if (result == null) {
+                    OkHttpClient shared = getClient(ApiEndpoint.WEATHER);
+                    // Same dispatcher and interceptors, but a separate connection pool
+                    OkHttpClient hedgeClient = shared.newBuilder()
+                            .connectionPool(new ConnectionPool(HEDGE_MAX_IDLE_CONNECTIONS,
+                                    KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                            .build();
+                    result = new HedgedCall(shared, hedgeClient, WEATHER_HEDGE_BUDGET,
+                            WEATHER_HEDGE_MIN_DELAY_MS, WEATHER_HEDGE_DEFAULT_DELAY_MS);
+                    weatherCalls = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether calls to an endpoint currently fail fast because its circuit is open.
+     */
+    public static boolean isCircuitOpen(ApiEndpoint endpoint) {
+        return circuitBreakers.isOpen(endpoint);
+    }
+
+    /**
+     * Builds the shared client with explicit pool, dispatcher and protocol settings.
+     */
+    private static OkHttpClient buildClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        ConnectionPool pool = new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(pool)
+                // HTTP/2 lets parallel Gemini calls share one multiplexed connection
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .pingInterval(HTTP2_PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                // Per-endpoint timings of every call
+                .eventListenerFactory(NetworkMetrics.getInstance())
+                // Fails fast while the device is offline, before anything else
+                .addInterceptor(new OfflineInterceptor())
+                // Paces Gemini calls per model and retries 429/503 responses
+                .addInterceptor(new GeminiRateLimiter())
+                // Fails fast while an API is down; after the rate limiter, so it
+                // times each network attempt and never our own throttling waits
+                .addInterceptor(circuitBreakers)
+                .build();
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.group316weatherappproject;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.util.Base64;
+import android.util.Base64InputStream;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+
+/**
+ * Decodes the image a Gemini generateContent response carries in
+ * candidates[].content.parts[].inlineData.data.
+ * The response is never read into a String or a JSON tree. The body is
+ * scanned up to the "data" value, whose base64 characters are then streamed
+ * through a Base64InputStream straight into BitmapFactory, so the only large
+ * allocation is the bitmap itself.
+ * The image bounds are read first so the bitmap can be subsampled to the size
+ * it is shown at. From API 26 pixels go in hardware bitmaps; before that,
+ * opaque JPEGs and PNGs are decoded as RGB_565, at half the bytes per pixel.
+ */
+public class InlineImageDecoder {
+
+    private static final ByteString INLINE_DATA_KEY = ByteString.encodeUtf8("\"inlineData\"");
+    private static final ByteString DATA_KEY = ByteString.encodeUtf8("\"data\"");
+
+    // Image headers, including EXIF blocks ahead of a JPEG frame, fit well within this
+    private static final int BOUNDS_MARK_LIMIT = 1024 * 1024;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    // PNG chunks ahead of the pixel data are searched this far for transparency
+    private static final int PNG_HEADER_LIMIT = 64 * 1024;
+
+    private InlineImageDecoder() {}
+
+    /**
+     * Decodes the first inline image in the response body, subsampled so it
+     * still covers a reqWidth x reqHeight view (as with centerCrop).
+     * If copy is not null, the encoded image bytes are also written to it,
+     * so the image can be stored without encoding it again.
+     * Returns null if the response has no inline image or it cannot be decoded.
+     * The body is consumed but not closed; the caller still owns the Response.
+     */
+    public static Bitmap decode(ResponseBody body, int reqWidth, int reqHeight, OutputStream copy) throws IOException {
+        InputStream data = openInlineData(body.source());
+        if (data == null) return null;
+
+        InputStream encoded = new Base64InputStream(data, Base64.DEFAULT);
+        if (copy != null) encoded = new TeeInputStream(encoded, copy);
+
+        try (InputStream image = encoded) {
+            Bitmap bitmap = decodeScaled(image, reqWidth, reqHeight);
+            if (copy != null && bitmap != null) {
+                // The decoder may stop before the end of the data; finish the copy
+                byte[] skip = new byte[8192];
+                while (image.read(skip) != -1) {}
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Decodes an encoded image, subsampled so it still covers a reqWidth x reqHeight view.
+     * The image bounds are read first and the stream rewound, so any stream works.
+     * Returns null if the image cannot be decoded. The stream is not closed.
+     */
+    public static Bitmap decodeScaled(InputStream encoded, int reqWidth, int reqHeight) throws IOException {
+        InputStream image = new BufferedInputStream(encoded);
+
+        // First pass: read the header only, then rewind to decode the pixels
+        image.mark(BOUNDS_MARK_LIMIT);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeStream(image, null, options);
+        image.reset();
+
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            // Pixels live in graphics memory instead of the Java heap
+            options.inPreferredConfig = Bitmap.Config.HARDWARE;
+        } else if (isOpaque(image, options.outMimeType)) {
+            // No alpha channel to keep, so half the bytes per pixel
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+        }
+        return BitmapFactory.decodeStream(image, null, options);
+    }
+
+    // JPEGs never have alpha; PNGs are checked, then the stream is rewound
+    private static boolean isOpaque(InputStream image, String mimeType) throws IOException {
+        if ("image/jpeg".equals(mimeType)) return true;
+        if (!"image/png".equals(mimeType)) return false;
+
+        image.mark(PNG_HEADER_LIMIT);
+        byte[] header = new byte[PNG_HEADER_LIMIT];
+        int length = 0;
+        int count;
+        while (length < header.length && (count = image.read(header, length, header.length - length)) != -1) {
+            length += count;
+        }
+        image.reset();
+        return isOpaquePng(header, length);
+    }
+
+    /**
+     * Whether a PNG starting with these bytes has no alpha: a grayscale, RGB
+     * or palette color type and no tRNS chunk before the first IDAT.
+     * Returns false if that cannot be told from the bytes given.
+     */
+    static boolean isOpaquePng(byte[] header, int length) {
+        if (length < 33) return false;
+        for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+            if (header[i] != PNG_SIGNATURE[i]) return false;
+        }
+        // IHDR is always first; its color type is the 10th byte of its data
+        int colorType = header[25];
+        if (colorType != 0 && colorType != 2 && colorType != 3) return false;
+
+        long offset = PNG_SIGNATURE.length;
+        while (offset + 8 <= length) {
+            int start = (int) offset;
+            long chunkLength = ((header[start] & 0xffL) << 24) | ((header[start + 1] & 0xff) << 16)
+                    | ((header[start + 2] & 0xff) << 8) | (header[start + 3] & 0xff);
+            String type = new String(header, start + 4, 4, StandardCharsets.US_ASCII);
+            if (type.equals("tRNS")) return false;
+            if (type.equals("IDAT")) return true;
+            // Length, type, data and CRC
+            offset += 12 + chunkLength;
+        }
+        return false;
+    }
+
+    /**
+     * Largest power-of-two sample size that keeps both dimensions at or above
+     * the requested size. Returns 1 if the requested size is unknown.
+     */
+    static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) return inSampleSize;
+
+        while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Positions the source at the start of the first inlineData "data" string
+     * and returns a stream of its characters, with JSON escapes removed.
+     * Returns null if the source holds no inline data.
+     */
+    static InputStream openInlineData(BufferedSource source) throws IOException {
+        if (!skipPast(source, INLINE_DATA_KEY)) return null;
+        if (!skipPast(source, DATA_KEY)) return null;
+
+        // Skip the ':' and any whitespace up to the opening quote
+        while (true) {
+            if (!source.request(1)) return null;
+            byte b = source.readByte();
+            if (b == '"') break;
+            if (b != ':' && b != ' ' && b != '\n' && b != '\r' && b != '\t') return null;
+        }
+        return new JsonStringInputStream(source);
+    }
+
+    // Discards everything up to and including the next occurrence of key
+    private static boolean skipPast(BufferedSource source, ByteString key) throws IOException {
+        long index = source.indexOf(key);
+        if (index == -1) return false;
+        source.skip(index + key.size());
+        return true;
+    }
+
+    /**
+     * Reads the body of a JSON string from the source, ending at its closing quote.
+     * Backslash escapes are resolved to the escaped character, except for
+     * \n, \r and \t which base64 line wrapping may introduce and which are dropped.
+     */
+    private static class JsonStringInputStream extends InputStream {
+
+        private static final ByteString SPECIAL = ByteString.encodeUtf8("\"\\");
+
+        private final BufferedSource source;
+        private boolean done;
+
+        JsonStringInputStream(BufferedSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (!done) {
+                byte b = readByte();
+                if (b == '"') {
+                    done = true;
+                } else if (b == '\\') {
+                    byte escaped = readByte();
+                    if (escaped != 'n' && escaped != 'r' && escaped != 't') return escaped & 0xff;
+                } else {
+                    return b & 0xff;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] sink, int offset, int byteCount) throws IOException {
+            if (done) return -1;
+            if (byteCount == 0) return 0;
+            if (!source.request(1)) throw new EOFException("Unterminated inline data");
+
+            // Copy plain characters in bulk from what is already buffered
+            Buffer buffer = source.getBuffer();
+            long special = buffer.indexOfElement(SPECIAL);
+            if (special == 0) {
+                int b = read();
+                if (b == -1) return -1;
+                sink[offset] = (byte) b;
+                return 1;
+            }
+            long available = special == -1 ? buffer.size() : special;
+            return buffer.read(sink, offset, (int) Math.min(byteCount, available));
+        }
+
+        // Reads one byte, treating the end of the body as a malformed document
+        private byte readByte() throws IOException {
+            if (!source.request(1)) throw new EOFException("Unterminated inline data");
+            return source.readByte();
+        }
+    }
+
+    /**
+     * Passes reads through and writes every byte read to a second stream.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+
+        private final OutputStream copy;
+
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] sink, int offset, int byteCount) throws IOException {
+            int count = in.read(sink, offset, byteCount);
+            if (count > 0) copy.write(sink, offset, count);
+            return count;
+        }
+
+        // Skipped bytes still belong in the copy, so read them instead
+        @Override
+        public long skip(long byteCount) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(Math.max(byteCount, 0), 8192)];
+            long skipped = 0;
+            while (skipped < byteCount) {
+                int count = read(buffer, 0, (int) Math.min(buffer.length, byteCount - skipped));
+                if (count == -1) break;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.group316weatherappproject;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Questions and their answers for one Insights screen, generated together
+ * by a single Gemini call in batched mode.
+ * Gemini is asked for JSON that follows {@link #responseSchema()}: an array
+ * of {"question", "answer"} objects. The same JSON is stored in the
+ * Insights cache, so the whole screen is cached as a unit.
+ */
+public class InsightBatch {
+
+    // Questions in the order Gemini returned them, mapped to their answers
+    private final Map<String, String> answers;
+
+    private InsightBatch(Map<String, String> answers) {
+        this.answers = answers;
+    }
+
+    /**
+     * Schema for the generationConfig of a batched request.
+     */
+    public static JsonObject responseSchema() {
+        JsonObject string = new JsonObject();
+        string.addProperty("type", "STRING");
+
+        JsonObject properties = new JsonObject();
+        properties.add("question", string);
+        properties.add("answer", string.deepCopy());
+
+        JsonArray required = new JsonArray();
+        required.add("question");
+        required.add("answer");
+
+        JsonObject item = new JsonObject();
+        item.addProperty("type", "OBJECT");
+        item.add("properties", properties);
+        item.add("required", required);
+        item.add("propertyOrdering", required.deepCopy());
+
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "ARRAY");
+        schema.add("items", item);
+        return schema;
+    }
+
+    /**
+     * Reads a batch from the JSON array Gemini generated or the cache stored.
+     * Entries with a blank question or answer are skipped.
+     * @throws IOException if the text is not a JSON array of objects
+     */
+    public static InsightBatch fromJson(String json) throws IOException {
+        Map<String, String> answers = new LinkedHashMap<>();
+        try {
+            JsonArray items = JsonParser.parseString(json).getAsJsonArray();
+            for (JsonElement element : items) {
+                JsonObject item = element.getAsJsonObject();
+                String question = getString(item, "question");
+                String answer = getString(item, "answer");
+                if (!question.isEmpty() && !answer.isEmpty()) {
+                    answers.put(question, answer);
+                }
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Malformed Insights batch", e);
+        }
+        return new InsightBatch(answers);
+    }
+
+    // Reads a trimmed string property, or an empty string if it is missing
+    private static String getString(JsonObject item, String name) {
+        JsonElement value = item.get(name);
+        return value == null || value.isJsonNull() ? "" : value.getAsString().trim();
+    }
+
+    // Check if the batch holds no usable questions
+    public boolean isEmpty() {
+        return answers.isEmpty();
+    }
+
+    // Get the questions in display order
+    public List<String> getQuestions() {
+        return new ArrayList<>(answers.keySet());
+    }
+
+    // Get the answers keyed by question
+    public Map<String, String> getAnswers() {
+        return Collections.unmodifiableMap(answers);
+    }
+}
@@ -1,9 +1,7 @@
 package com.example.group316weatherappproject;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
-import android.util.Base64;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
@@ -18,15 +16,19 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
+import okhttp3.Call;
 import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -40,8 +42,16 @@ public class InsightsActivity extends AppCompatActivity {
 
     private static final String TAG = "InsightsActivity";
 
-    private static final String GEMINI_TEXT_ENDPOINT =
-            "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:generateContent";
+    // Server-sent events, so questions and answers render while they are generated
+    private static final String GEMINI_STREAM_ENDPOINT =
+            "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:streamGenerateContent?alt=sse";
+    // Generated questions and answers are reused for this long for the same city and conditions
+    private static final long INSIGHTS_TTL_MS = 6 * 60 * 60 * 1000L;
+    // Insights cache entries for the question list have no question text
+    private static final String QUESTION_LIST_KEY = "";
+    // Insights cache entry holding a whole batched screen
+    private static final String BATCH_KEY = "*batch*";
+
     private static final MediaType MEDIA_TYPE_JSON =
             MediaType.parse("application/json; charset=utf-8");
 
@@ -53,14 +63,42 @@ public class InsightsActivity extends AppCompatActivity {
     private ProgressBar loadingIndicator;
     private Button backButton;
     private ScrollView scrollView;
+    private TextView answerTextView;
 
     // Data
     private String cityName;
-    private String weatherJson;
+    private double latitude;
+    private double longitude;
+    private WeatherObservation observation;
     private WeatherData weatherData;
+    private String insightsKey;
+
+    // Bumped for every question asked, so chunks from an older answer are dropped
+    private volatile int answerRequestId;
+    // The answer being fetched, cancelled when another question is asked
+    private Future<?> answerTask;
+    private volatile Call answerCall;
+
+    // Speculative answer prefetch, enabled in Settings
+    private boolean prefetchEnabled;
+    private final Map<String, Future<String>> prefetchedAnswers = new ConcurrentHashMap<>();
+
+    // Batched mode, enabled in Settings: answers generated together with the questions
+    private boolean batchedMode;
+    private final Map<String, String> batchedAnswers = new HashMap<>();
+
+    // Local cache of weather and generated Insights
+    private DatabaseHelper databaseHelper;
+    private AsyncDatabase database;
+
+    // Network state, for showing local questions at once while offline
+    private ConnectivityMonitor connectivity;
+
+    // Question, answer and prefetch calls, cancelled when the screen closes
+    private final TaskScope tasks = TaskScope.bindTo(this);
 
     // HTTP client
-    private final OkHttpClient httpClient = new OkHttpClient();
+    private final Call.Factory httpClient = tasks.track(HttpClientProvider.getClient(ApiEndpoint.GEMINI_TEXT));
     private final Gson json = new Gson();
 
     // Weather data holder class
@@ -95,15 +133,36 @@ public class InsightsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_insights);
 
         cityName = getIntent().getStringExtra("cityName");
-        weatherJson = getIntent().getStringExtra("weatherJson");
+        latitude = getIntent().getDoubleExtra("lat", 0.0);
+        longitude = getIntent().getDoubleExtra("lon", 0.0);
+        observation = getIntent().getParcelableExtra("weatherObservation");
 
         if (cityName == null) cityName = "Unknown City";
 
+        databaseHelper = DatabaseHelper.getInstance(this);
+        // Cache writes and Insights lookups go to the database write thread
+        database = new AsyncDatabase(databaseHelper, tasks);
+        connectivity = ConnectivityMonitor.getInstance(this);
+        SessionManager sessionManager = new SessionManager(this);
+        prefetchEnabled = sessionManager.isPrefetchAnswersEnabled();
+        batchedMode = sessionManager.isBatchedInsightsEnabled();
+
         initializeViews();
         setupListeners();
 
         ThemeManager.applySavedTheme(this, R.id.insights);
 
+        if (observation != null) {
+            showConditions();
+        } else {
+            loadCachedObservation();
+        }
+    }
+
+    /**
+     * Shows the current conditions and starts generating questions for them.
+     */
+    private void showConditions() {
         extractWeatherData();
         generateQuestions();
     }
@@ -134,48 +193,65 @@ public class InsightsActivity extends AppCompatActivity {
     }
 
     /**
-     * Parses the OpenWeather JSON into a WeatherData object.
-     * If parsing fails or no JSON is provided, falls back to a mock sample.
-     * Also updates the weather summary text shown at the top.
+     * Builds the WeatherData used for prompts from the observation handed over
+     * by WeatherActivity or read from the weather cache. If there is neither,
+     * we fall back to a mock sample.
+     * Also updates the weather summary text shown at the top and the key
+     * under which generated Insights for these conditions are cached.
      */
     private void extractWeatherData() {
-        if (weatherJson != null && !weatherJson.isEmpty()) {
-            try {
-                JsonObject root = JsonParser.parseString(weatherJson).getAsJsonObject();
-
-                JsonObject main = root.getAsJsonObject("main");
-                double temp = main.get("temp").getAsDouble();
-                int humidity = main.get("humidity").getAsInt();
+        if (observation != null) {
+            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+            String dateTime = sdf.format(new java.util.Date(observation.getTimestamp() * 1000));
 
-                JsonArray weatherArray = root.getAsJsonArray("weather");
-                String condition = weatherArray.get(0).getAsJsonObject().get("description").getAsString();
-
-                JsonObject wind = root.getAsJsonObject("wind");
-                double windSpeed = wind.get("speed").getAsDouble();
-
-                long timestamp = root.get("dt").getAsLong();
-                java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
-                String dateTime = sdf.format(new java.util.Date(timestamp * 1000));
-
-                weatherData = new WeatherData(temp, condition, humidity, windSpeed, dateTime);
-
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to parse weather JSON", e);
-                createMockWeatherData();
-            }
+            weatherData = new WeatherData(observation.getTemperature(), observation.getCondition(),
+                    observation.getHumidity(), observation.getWindSpeed(), dateTime);
         } else {
+            Log.w(TAG, "No observation available for " + cityName + ", using mock data");
             createMockWeatherData();
         }
 
+        insightsKey = WeatherBucket.insightsKey(cityName, weatherData.temperature,
+                weatherData.humidity, weatherData.windSpeed, weatherData.condition);
+
         weatherSummaryView.setText(String.format(Locale.US,
                 "Conditions: %.1f°C, %s, Humidity: %d%%, Wind: %.1f m/s",
                 weatherData.temperature, weatherData.condition,
                 weatherData.humidity, weatherData.windSpeed));
     }
 
+    /**
+     * Used when WeatherActivity passed no observation: reads the last stored
+     * one for this city from the weather cache, off the main thread, then
+     * shows it. A placeholder is shown meanwhile.
+     */
+    private void loadCachedObservation() {
+        weatherSummaryView.setText("Loading current conditions...");
+        loadingIndicator.setVisibility(View.VISIBLE);
+
+        database.getCachedWeather(cityName, latitude, longitude, new AsyncDatabase.Callback<CachedWeather>() {
+            @Override
+            public void onResult(CachedWeather cached) {
+                if (cached != null) {
+                    try {
+                        observation = WeatherObservation.fromJson(cached.getPayload());
+                    } catch (IOException e) {
+                        Log.w(TAG, "Failed to read cached observation", e);
+                    }
+                }
+                showConditions();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                showConditions();
+            }
+        });
+    }
+
     /**
      * Creates a hard-coded WeatherData sample used when real
-     * weather JSON is missing or invalid.
+     * weather data is neither passed in nor cached.
      */
     private void createMockWeatherData() {
         weatherData = new WeatherData(6.2, "few clouds", 46, 3.1, "2024-11-16 18:52");
@@ -184,9 +260,15 @@ public class InsightsActivity extends AppCompatActivity {
     /**
      * Builds a natural-language prompt describing the current conditions
      * and sends it to Gemini to generate 4 practical weather-related questions.
+     * Questions cached for the same city and conditions are shown without a call.
      * Falls back to local questions if the API fails.
      */
     private void generateQuestions() {
+        if (batchedMode) {
+            generateBatchedInsights();
+            return;
+        }
+
         loadingIndicator.setVisibility(View.VISIBLE);
 
         StringBuilder sb = new StringBuilder();
@@ -205,19 +287,52 @@ public class InsightsActivity extends AppCompatActivity {
         String prompt = sb.toString();
         Log.d(TAG, "Question generation prompt: " + prompt);
 
-        new Thread(() -> {
+        questionsContainer.removeAllViews();
+        QuestionLineBuffer lines = new QuestionLineBuffer();
+
+        tasks.launch(() -> {
             try {
+                // Same city and conditions as a recent visit: no API call needed
+                String cached = getCachedInsight(QUESTION_LIST_KEY);
+                if (cached != null) {
+                    List<String> questions = Arrays.asList(cached.split("\n"));
+                    tasks.runOnUiThread(() -> {
+                        loadingIndicator.setVisibility(View.GONE);
+                        displayQuestions(questions);
+                    });
+                    return;
+                }
+                if (!ConnectivityMonitor.isOnline()) {
+                    tasks.runOnUiThread(this::showOfflineQuestions);
+                    return;
+                }
+
+                List<String> generated = new ArrayList<>();
                 String apiKey = BuildConfig.GEMINI_API_KEY;
-                Request request = prepareGeminiTextRequest(prompt, apiKey);
-                String response = executeGeminiTextRequest(request);
-                List<String> questions = parseQuestionsFromResponse(response);
+                Request request = prepareGeminiStreamRequest(prompt, apiKey);
+                executeGeminiStreamRequest(httpClient.newCall(request), chunk -> {
+                    for (String question : lines.append(chunk)) {
+                        generated.add(question);
+                        tasks.runOnUiThread(() -> addQuestion(question));
+                    }
+                });
+                List<String> remaining = lines.finish();
+                generated.addAll(remaining);
+
+                if (!generated.isEmpty()) {
+                    database.putCachedInsight(insightsKey, QUESTION_LIST_KEY, TextUtils.join("\n", generated), null);
+                }
 
-                runOnUiThread(() -> {
+                tasks.runOnUiThread(() -> {
+                    for (String question : remaining) {
+                        addQuestion(question);
+                    }
                     loadingIndicator.setVisibility(View.GONE);
 
-                    if (questions != null && !questions.isEmpty()) {
-                        displayQuestions(questions);
-                        Toast.makeText(this, "✅ Generated " + questions.size() + " AI questions!", Toast.LENGTH_SHORT).show();
+                    int count = questionsContainer.getChildCount();
+                    if (count > 0) {
+                        prefetchAnswers(generated);
+                        Toast.makeText(this, "✅ Generated " + count + " AI questions!", Toast.LENGTH_SHORT).show();
                     } else {
                         showFallbackQuestions();
                         Toast.makeText(this, "Using fallback questions", Toast.LENGTH_SHORT).show();
@@ -226,34 +341,113 @@ public class InsightsActivity extends AppCompatActivity {
 
             } catch (Exception e) {
                 Log.e(TAG, "Failed to generate questions", e);
-                runOnUiThread(() -> {
+                tasks.runOnUiThread(() -> {
+                    loadingIndicator.setVisibility(View.GONE);
+                    // Keep any questions that streamed in before the failure
+                    if (questionsContainer.getChildCount() == 0) {
+                        showFallbackQuestions();
+                    }
+                    Toast.makeText(this, "Error generating questions: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                });
+            }
+        });
+    }
+
+    /**
+     * Batched mode: asks Gemini for the questions and their answers in one call,
+     * so the whole screen costs a single round trip, cached as a unit.
+     * Tapping a question then shows its answer without another call.
+     */
+    private void generateBatchedInsights() {
+        loadingIndicator.setVisibility(View.VISIBLE);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Generate exactly 4 practical weather questions for ")
+                .append(cityName)
+                .append(" with current conditions: ");
+        sb.append(String.format(Locale.US, "%.1f°C, %s, %d%% humidity, %.1f m/s wind. ",
+                weatherData.temperature, weatherData.condition, weatherData.humidity, weatherData.windSpeed));
+        sb.append("Cover clothing/comfort, outdoor activities, health/safety and planning/preparation. ");
+        sb.append("Answer each question in 2-3 sentences that are specific and actionable for these conditions.");
+
+        String prompt = sb.toString();
+        Log.d(TAG, "Batched insights prompt: " + prompt);
+
+        tasks.launch(() -> {
+            try {
+                String cached = getCachedInsight(BATCH_KEY);
+                InsightBatch batch = null;
+                if (cached != null) {
+                    try {
+                        batch = InsightBatch.fromJson(cached);
+                    } catch (IOException e) {
+                        Log.w(TAG, "Ignoring unreadable cached batch", e);
+                    }
+                }
+
+                if ((batch == null || batch.isEmpty()) && !ConnectivityMonitor.isOnline()) {
+                    tasks.runOnUiThread(this::showOfflineQuestions);
+                    return;
+                }
+                if (batch == null || batch.isEmpty()) {
+                    String apiKey = BuildConfig.GEMINI_API_KEY;
+                    Request request = prepareGeminiStreamRequest(buildBatchRequestJson(prompt), apiKey);
+                    String generated = executeGeminiStreamRequest(httpClient.newCall(request), chunk -> {});
+                    batch = InsightBatch.fromJson(generated);
+                    if (!batch.isEmpty()) {
+                        database.putCachedInsight(insightsKey, BATCH_KEY, generated, null);
+                    }
+                }
+
+                InsightBatch result = batch;
+                tasks.runOnUiThread(() -> {
+                    loadingIndicator.setVisibility(View.GONE);
+                    if (!result.isEmpty()) {
+                        batchedAnswers.putAll(result.getAnswers());
+                        displayQuestions(result.getQuestions());
+                    } else {
+                        showFallbackQuestions();
+                        Toast.makeText(this, "Using fallback questions", Toast.LENGTH_SHORT).show();
+                    }
+                });
+
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to generate batched insights", e);
+                tasks.runOnUiThread(() -> {
                     loadingIndicator.setVisibility(View.GONE);
                     showFallbackQuestions();
                     Toast.makeText(this, "Error generating questions: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 });
             }
-        }).start();
+        });
     }
 
     /**
-     * Builds an HTTP Request object for the Gemini text endpoint
+     * Builds an HTTP Request object for the Gemini streaming text endpoint
      * using the given prompt and API key.
-     *
      */
-    private Request prepareGeminiTextRequest(String prompt, String apiKey) throws IOException {
+    private Request prepareGeminiStreamRequest(String prompt, String apiKey) throws IOException {
+        return prepareGeminiStreamRequest(buildTextRequestJson(prompt), apiKey);
+    }
+
+    /**
+     * Builds an HTTP Request object for the Gemini streaming text endpoint
+     * with a ready-made JSON payload.
+     */
+    private Request prepareGeminiStreamRequest(JsonObject requestJson, String apiKey) throws IOException {
         if (apiKey == null || apiKey.isEmpty() || apiKey.equals("YOUR_GEMINI_API_KEY")) {
             throw new IOException("Gemini API key missing");
         }
 
-        JsonObject requestJson = buildTextRequestJson(prompt);
         String jsonString = json.toJson(requestJson);
 
         RequestBody body = RequestBody.create(jsonString, MEDIA_TYPE_JSON);
 
         return new Request.Builder()
-                .url(GEMINI_TEXT_ENDPOINT)
+                .url(GEMINI_STREAM_ENDPOINT)
                 .addHeader("x-goog-api-key", apiKey)
                 .addHeader("Content-Type", "application/json")
+                .addHeader("Accept", "text/event-stream")
                 .post(body)
                 .build();
     }
@@ -286,12 +480,28 @@ public class InsightsActivity extends AppCompatActivity {
     }
 
     /**
-     * Executes the given Gemini request synchronously and returns
-     * the raw JSON response body as a string, or throws on failure.
-     *
+     * Constructs the JSON payload for a batched request, asking Gemini for
+     * a JSON array of questions with answers that follows InsightBatch's schema.
+     */
+    private JsonObject buildBatchRequestJson(String prompt) {
+        JsonObject request = buildTextRequestJson(prompt);
+
+        JsonObject generationConfig = request.getAsJsonObject("generationConfig");
+        // Four questions plus their answers need more room than a single reply
+        generationConfig.addProperty("maxOutputTokens", 1200);
+        generationConfig.addProperty("responseMimeType", "application/json");
+        generationConfig.add("responseSchema", InsightBatch.responseSchema());
+
+        return request;
+    }
+
+    /**
+     * Executes the given streaming Gemini call on the calling thread,
+     * passing each piece of generated text to the listener as it arrives.
+     * Returns the full generated text, or throws on failure.
      */
-    private String executeGeminiTextRequest(Request request) throws IOException {
-        try (Response response = httpClient.newCall(request).execute()) {
+    private String executeGeminiStreamRequest(Call call, GeminiStreamReader.Listener listener) throws IOException {
+        try (Response response = call.execute()) {
 
             if (!response.isSuccessful()) {
                 String error = response.body() != null ? response.body().string() : "No error body";
@@ -299,48 +509,48 @@ public class InsightsActivity extends AppCompatActivity {
                 throw new IOException("API request failed");
             }
 
-            String responseBody = response.body().string();
-            return responseBody;
+            return GeminiStreamReader.read(response.body(), listener);
         }
     }
 
-
     /**
-     * Parses a Gemini response body and extracts a list of
-     * numbered questions from the generated text.
+     * Collects streamed text and hands out numbered questions one by one,
+     * as soon as the line holding each question is complete.
      */
-    private List<String> parseQuestionsFromResponse(String responseBody) {
-        List<String> questions = new ArrayList<>();
-        try {
-            JsonObject root = JsonParser.parseString(responseBody).getAsJsonObject();
-
-            JsonArray candidates = root.getAsJsonArray("candidates");
-            if (candidates == null || candidates.size() == 0) return questions;
-
-            JsonObject first = candidates.get(0).getAsJsonObject();
-            JsonObject content = first.getAsJsonObject("content");
-            JsonArray parts = content.getAsJsonArray("parts");
-
-            if (parts != null && parts.size() > 0) {
-                String text = parts.get(0).getAsJsonObject().get("text").getAsString();
-                Log.d(TAG, "Generated text: " + text);
-
-                String[] lines = text.split("\n");
-                for (String line : lines) {
-                    line = line.trim();
-                    if (line.matches("^\\d+\\.\\s+.*")) {
-                        String question = line.replaceFirst("^\\d+\\.\\s+", "").trim();
-                        if (!question.isEmpty() && question.length() > 10) {
-                            questions.add(question);
-                        }
-                    }
-                }
+    private static class QuestionLineBuffer {
+        private final StringBuilder pending = new StringBuilder();
+
+        // Adds a chunk of text and returns the questions completed by it
+        List<String> append(String chunk) {
+            List<String> questions = new ArrayList<>();
+            pending.append(chunk);
+
+            int newline;
+            while ((newline = pending.indexOf("\n")) >= 0) {
+                addIfQuestion(pending.substring(0, newline), questions);
+                pending.delete(0, newline + 1);
             }
+            return questions;
+        }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to parse questions response", e);
+        // Returns the question on the last line, which has no trailing newline
+        List<String> finish() {
+            List<String> questions = new ArrayList<>();
+            addIfQuestion(pending.toString(), questions);
+            pending.setLength(0);
+            return questions;
+        }
+
+        // Keeps lines of the form "1. question" with a reasonably long question
+        private static void addIfQuestion(String line, List<String> questions) {
+            line = line.trim();
+            if (line.matches("^\\d+\\.\\s+.*")) {
+                String question = line.replaceFirst("^\\d+\\.\\s+", "").trim();
+                if (!question.isEmpty() && question.length() > 10) {
+                    questions.add(question);
+                }
+            }
         }
-        return questions;
     }
 
     /**
@@ -350,15 +560,24 @@ public class InsightsActivity extends AppCompatActivity {
     private void displayQuestions(List<String> questions) {
         questionsContainer.removeAllViews();
 
-        for (int i = 0; i < questions.size(); i++) {
-            String question = questions.get(i);
-            Button questionButton = createQuestionButton(question);
-            // Assign a stable ID to the first button for testing
-            if (i == 0) {
-                questionButton.setId(R.id.firstQuestionButton);
-            }
-            questionsContainer.addView(questionButton);
+        for (String question : questions) {
+            addQuestion(question);
+        }
+        prefetchAnswers(questions);
+    }
+
+    /**
+     * Appends a button for one question to the questions container.
+     * Questions stream in one at a time, so the first one hides the spinner.
+     */
+    private void addQuestion(String question) {
+        Button questionButton = createQuestionButton(question);
+        // Assign a stable ID to the first button for testing
+        if (questionsContainer.getChildCount() == 0) {
+            questionButton.setId(R.id.firstQuestionButton);
         }
+        questionsContainer.addView(questionButton);
+        loadingIndicator.setVisibility(View.GONE);
     }
 
     /**
@@ -393,70 +612,171 @@ public class InsightsActivity extends AppCompatActivity {
     /**
      * Sends the selected question plus current weather conditions
      * to Gemini to generate a short, practical answer, then displays it.
+     * A cached answer for the same question and conditions is shown instead if present.
      */
     private void answerQuestion(String question) {
+        // Batched mode already generated this answer
+        String batched = batchedAnswers.get(question);
+        if (batched != null) {
+            ++answerRequestId;
+            loadingIndicator.setVisibility(View.GONE);
+            showAnswer(question, batched);
+            return;
+        }
+
         loadingIndicator.setVisibility(View.VISIBLE);
         answerContainer.setVisibility(View.GONE);
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("Answer this weather question for ").append(cityName).append(": \"").append(question).append("\"");
-        sb.append("\n\nCurrent conditions: ");
-        sb.append(String.format(Locale.US, "%.1f°C, %s, %d%% humidity, %.1f m/s wind",
-                weatherData.temperature, weatherData.condition, weatherData.humidity, weatherData.windSpeed));
-        sb.append("\n\nProvide a helpful, practical answer in 2-3 sentences. Be specific and actionable for these conditions.");
+        String prompt = buildAnswerPrompt(question);
 
-        String prompt = sb.toString();
+        int requestId = ++answerRequestId;
+        StringBuilder answer = new StringBuilder();
+        Future<String> prefetched = prefetchedAnswers.get(question);
 
-        new Thread(() -> {
+        // A new tap replaces the previous answer, so stop fetching it
+        if (answerTask != null) answerTask.cancel(true);
+        Call previousCall = answerCall;
+        if (previousCall != null) previousCall.cancel();
+
+        answerTask = tasks.launch(() -> {
             try {
+                String cached = prefetched != null ? awaitPrefetchedAnswer(prefetched) : null;
+                if (requestId != answerRequestId) return;
+                if (cached == null) {
+                    cached = getCachedInsight(question);
+                }
+                if (cached != null) {
+                    String ready = cached;
+                    tasks.runOnUiThread(() -> {
+                        if (requestId != answerRequestId) return;
+                        loadingIndicator.setVisibility(View.GONE);
+                        showAnswer(question, ready);
+                    });
+                    return;
+                }
+
                 String apiKey = BuildConfig.GEMINI_API_KEY;
-                Request request = prepareGeminiTextRequest(prompt, apiKey);
-                String responseBody = executeGeminiTextRequest(request);
-                String answer = parseAnswerFromResponse(responseBody);
+                Request request = prepareGeminiStreamRequest(prompt, apiKey);
+                Call call = httpClient.newCall(request);
+                answerCall = call;
+                String fullAnswer = executeGeminiStreamRequest(call, chunk -> tasks.runOnUiThread(() -> {
+                    if (requestId != answerRequestId) return;
+                    if (answer.length() == 0) {
+                        loadingIndicator.setVisibility(View.GONE);
+                        showAnswer(question, "");
+                    }
+                    answer.append(chunk);
+                    answerTextView.setText("A: " + answer.toString().trim());
+                }));
 
-                runOnUiThread(() -> {
-                    loadingIndicator.setVisibility(View.GONE);
-                    showAnswer(question, answer);
+                if (!fullAnswer.trim().isEmpty()) {
+                    database.putCachedInsight(insightsKey, question, fullAnswer.trim(), null);
+                }
+
+                tasks.runOnUiThread(() -> {
+                    if (requestId != answerRequestId) return;
+                    if (answer.toString().trim().isEmpty()) {
+                        loadingIndicator.setVisibility(View.GONE);
+                        showAnswer(question, "I couldn't generate a proper answer. Please try asking another question.");
+                    } else {
+                        scrollView.post(() -> scrollView.fullScroll(View.FOCUS_DOWN));
+                    }
                 });
 
             } catch (Exception e) {
                 Log.e(TAG, "Failed to get answer", e);
-                runOnUiThread(() -> {
+                String message = e instanceof OfflineException
+                        ? "You're offline. Ask again once you're connected."
+                        : "Sorry, I couldn't generate an answer at the moment. Please try again.";
+                tasks.runOnUiThread(() -> {
+                    if (requestId != answerRequestId) return;
                     loadingIndicator.setVisibility(View.GONE);
-                    showAnswer(question, "Sorry, I couldn't generate an answer at the moment. Please try again.");
+                    showAnswer(question, message);
                 });
             }
-        }).start();
+        });
     }
 
     /**
-     * Parses a Gemini answer response and extracts the first
-     * text part as the answer. Returns a fallback message if needed.
+     * Builds the Gemini prompt asking for a short answer to one question
+     * under the current conditions.
      */
-    private String parseAnswerFromResponse(String responseBody) {
-        try {
-            JsonObject root = JsonParser.parseString(responseBody).getAsJsonObject();
+    private String buildAnswerPrompt(String question) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Answer this weather question for ").append(cityName).append(": \"").append(question).append("\"");
+        sb.append("\n\nCurrent conditions: ");
+        sb.append(String.format(Locale.US, "%.1f°C, %s, %d%% humidity, %.1f m/s wind",
+                weatherData.temperature, weatherData.condition, weatherData.humidity, weatherData.windSpeed));
+        sb.append("\n\nProvide a helpful, practical answer in 2-3 sentences. Be specific and actionable for these conditions.");
+        return sb.toString();
+    }
 
-            JsonArray candidates = root.getAsJsonArray("candidates");
-            if (candidates == null || candidates.size() == 0) {
-                return "I couldn't generate a proper answer. Please try asking another question.";
-            }
+    /**
+     * When speculative mode is on in Settings, starts fetching answers for all
+     * displayed questions in the background, so a tap can usually show its
+     * answer immediately. They run at PREFETCH priority, so any question the
+     * user actually asks is started first. Answers are also written to the
+     * Insights cache. Nothing is prefetched while offline or while Gemini's
+     * circuit is open, since every call would fail.
+     */
+    private void prefetchAnswers(List<String> questions) {
+        if (!prefetchEnabled || isFinishing() || isDestroyed()) return;
+        if (!ConnectivityMonitor.isOnline() || HttpClientProvider.isCircuitOpen(ApiEndpoint.GEMINI_TEXT)) return;
+
+        for (String question : questions) {
+            if (prefetchedAnswers.containsKey(question) || batchedAnswers.containsKey(question)) continue;
+            String prompt = buildAnswerPrompt(question);
+            prefetchedAnswers.put(question, tasks.launch(AppExecutors.network(),
+                    PriorityExecutor.Priority.PREFETCH, () -> prefetchAnswer(question, prompt)));
+        }
+    }
 
-            JsonObject first = candidates.get(0).getAsJsonObject();
-            JsonObject content = first.getAsJsonObject("content");
-            JsonArray parts = content.getAsJsonArray("parts");
+    /**
+     * Fetches one answer for prefetchAnswers. Returns null if it could not be
+     * fetched, in which case a tap falls back to streaming the answer.
+     */
+    private String prefetchAnswer(String question, String prompt) {
+        try {
+            String cached = getCachedInsight(question);
+            if (cached != null) return cached;
 
-            if (parts != null && parts.size() > 0) {
-                return parts.get(0).getAsJsonObject().get("text").getAsString().trim();
-            }
+            Request request = prepareGeminiStreamRequest(prompt, BuildConfig.GEMINI_API_KEY);
+            // Cancelled at once if the screen closed while this task was queued
+            String answer = executeGeminiStreamRequest(httpClient.newCall(request), chunk -> {}).trim();
+            if (answer.isEmpty()) return null;
 
+            database.putCachedInsight(insightsKey, question, answer, null);
+            Log.d(TAG, "Prefetched answer for: " + question);
+            return answer;
         } catch (Exception e) {
-            Log.e(TAG, "Failed to parse answer response", e);
+            Log.w(TAG, "Failed to prefetch answer for: " + question, e);
+            return null;
         }
+    }
 
-        return "I couldn't generate a proper answer. Please try asking another question.";
+    /**
+     * Waits for a prefetch already in flight instead of asking the same question twice.
+     * A prefetch still queued is moved up to USER priority, so the tap does not
+     * wait behind other prefetches. The prefetch is shared, so it is only waited
+     * for, never run or cancelled here. Returns null if it failed or was cancelled.
+     */
+    private String awaitPrefetchedAnswer(Future<String> prefetched) {
+        try {
+            AppExecutors.network().promote(prefetched, PriorityExecutor.Priority.USER);
+            return prefetched.get();
+        } catch (Exception e) {
+            return null;
+        }
     }
 
+    /**
+     * Looks up a cached Insights entry from a worker thread, waiting for the
+     * result. The lookup runs on the database write thread, since a hit is
+     * marked as used and an expired entry is deleted.
+     */
+    private String getCachedInsight(String question) throws Exception {
+        return database.getCachedInsight(insightsKey, question, INSIGHTS_TTL_MS, null).get();
+    }
 
     /**
      * Renders the selected question and its answer into the
@@ -471,13 +791,13 @@ public class InsightsActivity extends AppCompatActivity {
         questionView.setTypeface(questionView.getTypeface(), android.graphics.Typeface.BOLD);
         questionView.setPadding(0, 0, 0, 16);
 
-        TextView answerView = new TextView(this);
-        answerView.setText("A: " + answer);
-        answerView.setTextSize(14);
-        answerView.setLineSpacing(4, 1.2f);
+        answerTextView = new TextView(this);
+        answerTextView.setText("A: " + answer);
+        answerTextView.setTextSize(14);
+        answerTextView.setLineSpacing(4, 1.2f);
 
         answerContainer.addView(questionView);
-        answerContainer.addView(answerView);
+        answerContainer.addView(answerTextView);
         answerContainer.setVisibility(View.VISIBLE);
 
         scrollView.post(() -> scrollView.fullScroll(View.FOCUS_DOWN));
@@ -507,6 +827,18 @@ public class InsightsActivity extends AppCompatActivity {
         return fallbackQuestions;
     }
 
+    /**
+     * Shows the local questions while offline, and generates real ones
+     * once the network returns if the screen is still open.
+     */
+    private void showOfflineQuestions() {
+        loadingIndicator.setVisibility(View.GONE);
+        showFallbackQuestions();
+        Toast.makeText(this, "You're offline. Showing suggested questions.", Toast.LENGTH_SHORT).show();
+        connectivity.runWhenOnline(tasks, "InsightsActivity:questions",
+                () -> tasks.runOnUiThread(this::generateQuestions));
+    }
+
     /**
      * Displays fallback questions in the UI
      * when Gemini fails or returns no usable questions.
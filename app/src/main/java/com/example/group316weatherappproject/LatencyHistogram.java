@@ -0,0 +1,88 @@
+package com.example.group316weatherappproject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in milliseconds with fixed, roughly logarithmic
+ * buckets from 1 ms to 2 minutes. Recording is lock-free, so it can be
+ * updated from OkHttp's threads on every call. Percentiles are estimated
+ * as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+    // Upper bounds of the buckets in ms; a last bucket holds everything slower
+    private static final long[] BOUNDS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 350, 500, 750,
+            1_000, 1_500, 2_000, 3_000, 5_000, 7_500, 10_000,
+            15_000, 20_000, 30_000, 45_000, 60_000, 90_000, 120_000
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Adds one duration.
+     */
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    // Index of the first bucket whose bound is at least the value
+    private static int bucketOf(long millis) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (millis <= BOUNDS[i]) return i;
+        }
+        return BOUNDS.length;
+    }
+
+    // Get the number of recorded durations
+    public long getCount() {
+        return count.get();
+    }
+
+    // Get the mean of the recorded durations
+    public long getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : sum.get() / n;
+    }
+
+    // Get the longest recorded duration
+    public long getMaxMillis() {
+        return max.get();
+    }
+
+    /**
+     * Estimated duration below which the given fraction of recordings fall, e.g. 0.95 for p95.
+     * Never more than the longest duration actually recorded.
+     */
+    public long percentile(double fraction) {
+        long n = count.get();
+        if (n == 0) return 0;
+
+        long target = (long) Math.ceil(fraction * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return i < BOUNDS.length ? Math.min(BOUNDS[i], max.get()) : max.get();
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Summary such as "n=12 mean=85 p50=100 p95=200 p99=310 max=310 ms".
+     */
+    public String describe() {
+        return String.format(Locale.US, "n=%d mean=%d p50=%d p95=%d p99=%d max=%d ms",
+                getCount(), getMeanMillis(), percentile(0.5), percentile(0.95), percentile(0.99), getMaxMillis());
+    }
+}
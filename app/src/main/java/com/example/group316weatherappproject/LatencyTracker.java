@@ -0,0 +1,44 @@
+package com.example.group316weatherappproject;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent calls to one endpoint and reports
+ * percentiles over them. Until enough samples are in, a default is used.
+ */
+public class LatencyTracker {
+
+    private static final int MIN_SAMPLES = 10;
+
+    private final long[] samples;
+    private final long defaultMillis;
+    private int count;
+    private int next;
+
+    // Constructor keeping up to windowSize samples, reporting defaultMillis until enough arrive
+    public LatencyTracker(int windowSize, long defaultMillis) {
+        this.samples = new long[windowSize];
+        this.defaultMillis = defaultMillis;
+    }
+
+    /**
+     * Adds the latency of one completed call.
+     */
+    public synchronized void record(long latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    /**
+     * Latency below which the given fraction of recent calls completed, e.g. 0.95 for p95.
+     */
+    public synchronized long percentile(double fraction) {
+        if (count < MIN_SAMPLES) return defaultMillis;
+
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+}
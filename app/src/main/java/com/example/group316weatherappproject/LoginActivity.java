@@ -20,13 +20,18 @@ public class LoginActivity extends AppCompatActivity {
 
     private EditText editUsername, editPassword;
     private Button loginButton;
-    private DatabaseHelper databaseHelper;
+    private AsyncDatabase database;
     private SessionManager sessionManager;
 
+    // Login checks, dropped if the screen closes first
+    private final TaskScope tasks = TaskScope.bindTo(this);
+
     // onCreate method to initialize the activity
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Start tracking the network so offline calls fail fast
+        ConnectivityMonitor.getInstance(this);
 
         // Initialize session manager and check if already logged in
         sessionManager = new SessionManager(this);
@@ -43,8 +48,12 @@ public class LoginActivity extends AppCompatActivity {
             return insets;
         });
 
-        // Initialize database helper
-        databaseHelper = new DatabaseHelper(this);
+        // Initialize database access off the main thread
+        database = new AsyncDatabase(DatabaseHelper.getInstance(this), tasks);
+
+        // Measure the password hashing cost now, so the first login does not wait for it
+        PasswordHasher hasher = PasswordHasher.getInstance(this);
+        AppExecutors.crypto().submit(PriorityExecutor.Priority.BACKGROUND, hasher::getLogRounds);
 
         // Get UI elements
         editUsername = findViewById(R.id.editUsername);
@@ -80,9 +89,25 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
-        // Authenticate user
-        User user = databaseHelper.authenticateUser(username, password);
+        // Authenticate user off the main thread; block repeat taps meanwhile
+        loginButton.setEnabled(false);
+        database.authenticateUser(username, password, new AsyncDatabase.Callback<User>() {
+            @Override
+            public void onResult(User user) {
+                onAuthenticated(user);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                loginButton.setEnabled(true);
+                Toast.makeText(LoginActivity.this, "Login failed, please try again", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
+    // Completes a login attempt with the authenticated user, or null if it failed
+    private void onAuthenticated(User user) {
+        loginButton.setEnabled(true);
         if (user != null) {
             // Persist user's theme so HomeActivity immediately uses it
             Theme current = ThemeManager.loadTheme(this);
@@ -0,0 +1,259 @@
+package com.example.group316weatherappproject;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Timing of every call made through the shared HTTP client, per {@link ApiEndpoint}.
+ * Installed as the client's EventListener factory, it records DNS, connect,
+ * TLS, time to first byte, body download and total time into histograms,
+ * and counts failures, cancellations and connection reuse. Calls to hosts
+ * the app does not track are not recorded. Lookups in the app's own weather
+ * and Insights caches are counted against the endpoint they stand in for.
+ * The numbers can be read from code or written to a file with {@link #dumpTo(File)}.
+ */
+public class NetworkMetrics implements EventListener.Factory {
+
+    /**
+     * A part of a call that is timed separately.
+     */
+    public enum Phase {
+        DNS,
+        CONNECT,
+        TLS,
+        // From the request being sent to the first response header byte
+        TIME_TO_FIRST_BYTE,
+        BODY_DOWNLOAD,
+        TOTAL
+    }
+
+    /**
+     * Something counted per endpoint.
+     */
+    public enum Counter {
+        CALLS,
+        FAILURES,
+        CANCELLED,
+        NEW_CONNECTIONS,
+        REUSED_CONNECTIONS,
+        // Local cache lookups that made a call unnecessary, and ones that did not
+        CACHE_HITS,
+        CACHE_MISSES
+    }
+
+    private static final NetworkMetrics INSTANCE = new NetworkMetrics();
+
+    private final Map<ApiEndpoint, Map<Phase, LatencyHistogram>> histograms = new EnumMap<>(ApiEndpoint.class);
+    private final Map<ApiEndpoint, Map<Counter, AtomicLong>> counters = new EnumMap<>(ApiEndpoint.class);
+
+    // Constructor creating empty histograms and counters for every endpoint
+    NetworkMetrics() {
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+            for (Phase phase : Phase.values()) phases.put(phase, new LatencyHistogram());
+            histograms.put(endpoint, phases);
+
+            Map<Counter, AtomicLong> counts = new EnumMap<>(Counter.class);
+            for (Counter counter : Counter.values()) counts.put(counter, new AtomicLong());
+            counters.put(endpoint, counts);
+        }
+    }
+
+    // Get the metrics recorded by the shared client
+    public static NetworkMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        ApiEndpoint endpoint = ApiEndpoint.of(call.request().url());
+        return endpoint == null ? EventListener.NONE : new CallTimer(endpoint);
+    }
+
+    // Get the histogram for one phase of calls to an endpoint
+    public LatencyHistogram getHistogram(ApiEndpoint endpoint, Phase phase) {
+        return histograms.get(endpoint).get(phase);
+    }
+
+    // Get a counter for an endpoint
+    public long getCount(ApiEndpoint endpoint, Counter counter) {
+        return counters.get(endpoint).get(counter).get();
+    }
+
+    /**
+     * Counts a lookup in a local cache that stands in for calls to an endpoint.
+     * @param hit true if the cached entry could be used without a call
+     */
+    public void recordCacheLookup(ApiEndpoint endpoint, boolean hit) {
+        counters.get(endpoint).get(hit ? Counter.CACHE_HITS : Counter.CACHE_MISSES).incrementAndGet();
+    }
+
+    /**
+     * Report of every endpoint that has been called or looked up in a local cache,
+     * one block per endpoint.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            if (getCount(endpoint, Counter.CALLS) == 0 && getCount(endpoint, Counter.CACHE_HITS) == 0
+                    && getCount(endpoint, Counter.CACHE_MISSES) == 0) continue;
+
+            sb.append(endpoint).append('\n');
+            for (Counter counter : Counter.values()) {
+                sb.append("  ").append(counter).append(": ").append(getCount(endpoint, counter)).append('\n');
+            }
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = getHistogram(endpoint, phase);
+                if (histogram.getCount() == 0) continue;
+                sb.append("  ").append(phase).append(": ").append(histogram.describe()).append('\n');
+            }
+        }
+        return sb.length() == 0 ? "No calls recorded\n" : sb.toString();
+    }
+
+    /**
+     * Writes the report, followed by the background pool statistics, to a file.
+     */
+    public void dumpTo(File file) throws IOException {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date());
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("Network metrics at " + time + "\n\n");
+            writer.write(describe());
+            writer.write("\nBackground pools\n");
+            writer.write(AppExecutors.describe());
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Times the events of one call and records them when each phase ends.
+     * OkHttp delivers a call's events one at a time, so no locking is needed.
+     */
+    private class CallTimer extends EventListener {
+        private final ApiEndpoint endpoint;
+
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestSent;
+        private long bodyStart;
+        private boolean connecting;
+
+        CallTimer(ApiEndpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private long now() {
+            return System.nanoTime();
+        }
+
+        private void record(Phase phase, long startNanos) {
+            getHistogram(endpoint, phase).record((now() - startNanos) / 1_000_000);
+        }
+
+        private void count(Counter counter) {
+            counters.get(endpoint).get(counter).incrementAndGet();
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = now();
+            count(Counter.CALLS);
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = now();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            record(Phase.DNS, dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = now();
+            connecting = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = now();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            record(Phase.TLS, secureConnectStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            record(Phase.CONNECT, connectStart);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            // A connection acquired without connecting came from the pool
+            count(connecting ? Counter.NEW_CONNECTIONS : Counter.REUSED_CONNECTIONS);
+            connecting = false;
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            requestSent = now();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestSent = now();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            if (requestSent != 0) record(Phase.TIME_TO_FIRST_BYTE, requestSent);
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            bodyStart = now();
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            if (bodyStart != 0) record(Phase.BODY_DOWNLOAD, bodyStart);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            record(Phase.TOTAL, callStart);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            record(Phase.TOTAL, callStart);
+            // Hedges and closed screens cancel calls on purpose
+            count(call.isCanceled() ? Counter.CANCELLED : Counter.FAILURES);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.group316weatherappproject;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of making a request while the device has no network.
+ * It is an IOException, so callers take their usual offline fallback,
+ * only without waiting for a socket timeout first.
+ */
+public class OfflineException extends IOException {
+
+    // Constructor for a request refused while offline
+    public OfflineException() {
+        super("No network connection");
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.group316weatherappproject;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that fails calls at once with
+ * {@link OfflineException} while {@link ConnectivityMonitor} reports no network.
+ * It runs before the circuit breakers, so being offline is not counted
+ * against any endpoint.
+ */
+public class OfflineInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (!ConnectivityMonitor.isOnline()) {
+            throw new OfflineException();
+        }
+        return chain.proceed(chain.request());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.group316weatherappproject;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * BCrypt hashing with a cost factor calibrated to this device. The first
+ * use times one hash at the minimum cost and picks the highest cost whose
+ * hash still fits in TARGET_MILLIS; each extra round doubles the time. The
+ * result is stored, so the device is measured once. Hashing is slow by
+ * design, so call this on AppExecutors.crypto(), never the main thread.
+ */
+public class PasswordHasher {
+
+    private static final String TAG = "PasswordHasher";
+    private static final String PREF_NAME = "PasswordHasher";
+    private static final String KEY_LOG_ROUNDS = "logRounds";
+
+    // Longest a login or registration should spend hashing
+    static final long TARGET_MILLIS = 250;
+    // Never below BCrypt's default, however slow the device
+    static final int MIN_LOG_ROUNDS = 10;
+    static final int MAX_LOG_ROUNDS = 14;
+
+    private static volatile PasswordHasher instance;
+
+    private final Context context;
+    private volatile int logRounds;
+
+    private PasswordHasher(Context context) {
+        this.context = context;
+    }
+
+    // Constructor with a fixed cost, for tests
+    PasswordHasher(int logRounds) {
+        this.context = null;
+        this.logRounds = logRounds;
+    }
+
+    // Get the hasher shared by the app
+    public static PasswordHasher getInstance(Context context) {
+        PasswordHasher result = instance;
+        if (result == null) {
+            synchronized (PasswordHasher.class) {
+                result = instance;
+                if (result == null) {
+                    result = new PasswordHasher(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hash a password at this device's cost.
+     */
+    public String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(getLogRounds()));
+    }
+
+    /**
+     * Check a password against a stored hash of any cost.
+     */
+    public boolean verify(String password, String passwordHash) {
+        try {
+            return BCrypt.checkpw(password, passwordHash);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Stored password hash is malformed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Check if a stored hash was made at a lower cost than this device now uses.
+     * A stronger hash, e.g. made on a faster device, is never weakened.
+     */
+    public boolean needsRehash(String passwordHash) {
+        return costOf(passwordHash) < getLogRounds();
+    }
+
+    /**
+     * Get the cost used for new hashes, calibrating on first use.
+     */
+    public int getLogRounds() {
+        int rounds = logRounds;
+        if (rounds == 0) {
+            synchronized (this) {
+                rounds = logRounds;
+                if (rounds == 0) {
+                    rounds = loadOrCalibrate();
+                    logRounds = rounds;
+                }
+            }
+        }
+        return rounds;
+    }
+
+    // Read the stored cost, or measure the device and store it
+    private int loadOrCalibrate() {
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        int stored = prefs.getInt(KEY_LOG_ROUNDS, 0);
+        if (stored >= MIN_LOG_ROUNDS && stored <= MAX_LOG_ROUNDS) {
+            return stored;
+        }
+
+        // A cheap hash first, so class loading and JIT are not timed
+        BCrypt.hashpw("calibration", BCrypt.gensalt(4));
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", BCrypt.gensalt(MIN_LOG_ROUNDS));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        int rounds = chooseLogRounds(millis, TARGET_MILLIS);
+        prefs.edit().putInt(KEY_LOG_ROUNDS, rounds).apply();
+        Log.d(TAG, "Calibrated: " + millis + " ms at cost " + MIN_LOG_ROUNDS + " -> cost " + rounds);
+        return rounds;
+    }
+
+    /**
+     * Highest cost whose hash is expected to fit in targetMillis, given the
+     * time of one hash at MIN_LOG_ROUNDS, clamped to [MIN_LOG_ROUNDS, MAX_LOG_ROUNDS].
+     */
+    static int chooseLogRounds(long millisAtMin, long targetMillis) {
+        int rounds = MIN_LOG_ROUNDS;
+        long expected = Math.max(1, millisAtMin);
+        while (rounds < MAX_LOG_ROUNDS && expected * 2 <= targetMillis) {
+            expected *= 2;
+            rounds++;
+        }
+        return rounds;
+    }
+
+    /**
+     * Cost of a stored hash such as "$2a$10$...", or 0 if it cannot be read.
+     */
+    static int costOf(String passwordHash) {
+        if (passwordHash == null || passwordHash.length() < 7 || passwordHash.charAt(6) != '$') {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(passwordHash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
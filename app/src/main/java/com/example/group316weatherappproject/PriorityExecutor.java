@@ -0,0 +1,181 @@
+package com.example.group316weatherappproject;
+
+import android.os.Process;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread pool with a fixed number of threads whose queued tasks run in
+ * priority order, FIFO within a priority. Running tasks are not interrupted
+ * for higher priority work, but a waiting user task is always started next.
+ * Queue depth and time spent waiting are recorded for diagnostics.
+ */
+public class PriorityExecutor extends ThreadPoolExecutor {
+
+    /**
+     * Priority of a task, highest first.
+     */
+    public enum Priority {
+        // Work the user is waiting for, e.g. after a tap
+        USER,
+        // Refreshes the user will see but did not ask for
+        BACKGROUND,
+        // Speculative work that may never be used
+        PREFETCH
+    }
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Wait statistics: tasks started, their total and longest time in the queue
+    private final AtomicLong startedTasks = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+
+    // Constructor for a pool of the given size whose threads run at threadPriority
+    public PriorityExecutor(String name, int threads, int threadPriority) {
+        this(name, threads, newThreadFactory(name, threadPriority));
+    }
+
+    // Constructor with an explicit thread factory, for tests
+    PriorityExecutor(String name, int threads, ThreadFactory threadFactory) {
+        super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), threadFactory);
+        this.name = name;
+        // Idle pools give their threads back
+        allowCoreThreadTimeOut(true);
+    }
+
+    // Names the pool's threads and sets their Linux scheduling priority
+    private static ThreadFactory newThreadFactory(String name, int threadPriority) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(() -> {
+            Process.setThreadPriority(threadPriority);
+            runnable.run();
+        }, name + "-" + count.incrementAndGet());
+    }
+
+    /**
+     * Queues a task at the given priority.
+     */
+    public Future<?> submit(Priority priority, Runnable task) {
+        Task<Void> future = new Task<>(Executors.callable(task, null), priority);
+        execute(future);
+        return future;
+    }
+
+    /**
+     * Queues a task with a result at the given priority.
+     */
+    public <T> Future<T> submit(Priority priority, Callable<T> task) {
+        Task<T> future = new Task<>(task, priority);
+        execute(future);
+        return future;
+    }
+
+    /**
+     * Moves a queued task up to a higher priority, e.g. a prefetch the user
+     * is now waiting for. Does nothing if the task has already started or
+     * already has that priority.
+     */
+    public void promote(Future<?> future, Priority priority) {
+        if (!(future instanceof Task)) return;
+        Task<?> task = (Task<?>) future;
+        if (task.priority.compareTo(priority) <= 0) return;
+
+        // Take it out and queue it again, since the queue only sorts on insertion
+        if (getQueue().remove(task)) {
+            task.priority = priority;
+            execute(task);
+        }
+    }
+
+    /**
+     * Plain submissions are queued at BACKGROUND priority.
+     */
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command instanceof Task
+                ? command : new Task<>(Executors.callable(command, null), Priority.BACKGROUND));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new Task<>(callable, Priority.BACKGROUND);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new Task<>(Executors.callable(runnable, value), Priority.BACKGROUND);
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (runnable instanceof Task) {
+            long waited = System.currentTimeMillis() - ((Task<?>) runnable).queuedAt;
+            startedTasks.incrementAndGet();
+            totalWaitMillis.addAndGet(waited);
+            maxWaitMillis.accumulateAndGet(waited, Math::max);
+        }
+    }
+
+    /**
+     * One line summary of the pool, e.g.
+     * "network: 4/4 active, 3 queued, 120 done, wait avg 35 ms max 900 ms".
+     */
+    public String describe() {
+        return String.format(Locale.US, "%s: %d/%d active, %d queued, %d done, wait avg %d ms max %d ms",
+                name, getActiveCount(), getMaximumPoolSize(), getQueue().size(),
+                getCompletedTaskCount(), getAverageWaitMillis(), getMaxWaitMillis());
+    }
+
+    // Get the number of tasks waiting for a thread
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    // Get the average time started tasks spent in the queue
+    public long getAverageWaitMillis() {
+        long started = startedTasks.get();
+        return started == 0 ? 0 : totalWaitMillis.get() / started;
+    }
+
+    // Get the longest time a task spent in the queue
+    public long getMaxWaitMillis() {
+        return maxWaitMillis.get();
+    }
+
+    /**
+     * A queued task, ordered by priority and then by submission order.
+     */
+    private class Task<T> extends FutureTask<T> implements Comparable<Task<?>> {
+        // Only changed while the task is out of the queue
+        volatile Priority priority;
+        final long order = sequence.getAndIncrement();
+        final long queuedAt = System.currentTimeMillis();
+
+        Task(Callable<T> callable, Priority priority) {
+            super(callable);
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.group316weatherappproject;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a Gemini request is refused by the client-side rate limiter,
+ * or the API kept answering 429 Too Many Requests after all retries.
+ * It is an IOException so existing network error handling catches it;
+ * {@link ThemeErrorHandler#classifyError} reports it as RATE_LIMIT.
+ */
+public class RateLimitException extends IOException {
+
+    private final long retryAfterMillis;
+
+    // Constructor with a message and the earliest time to try again
+    public RateLimitException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    // Get how long (millis) to wait before the next attempt can succeed
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -10,6 +10,8 @@ public class SessionManager {
     private static final String KEY_USERNAME = "username";
     private static final String KEY_THEME_COLOR = "themeColor";
     private static final String KEY_TEXT_COLOR = "textColor";
+    private static final String KEY_PREFETCH_ANSWERS = "prefetchAnswers";
+    private static final String KEY_BATCHED_INSIGHTS = "batchedInsights";
 
     private SharedPreferences prefs;
     private SharedPreferences.Editor editor;
@@ -77,6 +79,36 @@ public class SessionManager {
         editor.commit();
     }
 
+    /**
+     * Check if Insights answers should be fetched before a question is tapped
+     */
+    public boolean isPrefetchAnswersEnabled() {
+        return prefs.getBoolean(KEY_PREFETCH_ANSWERS, false);
+    }
+
+    /**
+     * Enable or disable prefetching of Insights answers
+     */
+    public void setPrefetchAnswersEnabled(boolean enabled) {
+        editor.putBoolean(KEY_PREFETCH_ANSWERS, enabled);
+        editor.commit();
+    }
+
+    /**
+     * Check if Insights questions and answers should be generated in one request
+     */
+    public boolean isBatchedInsightsEnabled() {
+        return prefs.getBoolean(KEY_BATCHED_INSIGHTS, false);
+    }
+
+    /**
+     * Enable or disable batched generation of Insights
+     */
+    public void setBatchedInsightsEnabled(boolean enabled) {
+        editor.putBoolean(KEY_BATCHED_INSIGHTS, enabled);
+        editor.commit();
+    }
+
     /**
      * Logout user
      */
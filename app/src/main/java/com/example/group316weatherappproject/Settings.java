@@ -6,6 +6,7 @@ import android.util.Log;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.SeekBar;
+import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Toast;
 import android.graphics.Color;
@@ -23,8 +24,8 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
+import okhttp3.Call;
 import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -36,11 +37,15 @@ public class Settings extends AppCompatActivity {
     private SessionManager sessionManager;
     private Button logoutButton, backToHomeButton, applyThemeButton;
     private EditText themeDescriptionEdit;
+    private Switch prefetchAnswersSwitch, batchedInsightsSwitch;
     private TextView themePreviewText;
-    private DatabaseHelper databaseHelper;
+    private AsyncDatabase database;
+
+    // Theme generation, cancelled when the screen closes
+    private final TaskScope tasks = TaskScope.bindTo(this);
 
     // LLM helpers
-    private final OkHttpClient http = new OkHttpClient();
+    private final Call.Factory http = tasks.track(HttpClientProvider.getClient(ApiEndpoint.GEMINI_TEXT));
     private final Gson gson = new Gson();
     private static final String GEMINI_ENDPOINT = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:generateContent?key=";
     private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
@@ -49,12 +54,14 @@ public class Settings extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Start tracking the network so offline calls fail fast
+        ConnectivityMonitor.getInstance(this);
 
         EdgeToEdge.enable(this);
         setContentView(R.layout.settings);
 
         sessionManager = new SessionManager(this);
-        databaseHelper = new DatabaseHelper(this);
+        database = new AsyncDatabase(DatabaseHelper.getInstance(this), tasks);
 
         // Initialize UI elements
         initializeViews();
@@ -125,6 +132,8 @@ public class Settings extends AppCompatActivity {
         themeDescriptionEdit = findViewById(R.id.themeDescriptionEdit);
         applyThemeButton = findViewById(R.id.applyThemeButton);
         themePreviewText = findViewById(R.id.themePreviewText);
+        prefetchAnswersSwitch = findViewById(R.id.prefetchAnswersSwitch);
+        batchedInsightsSwitch = findViewById(R.id.batchedInsightsSwitch);
 
         // If the above elements don't exist in your layout, you'll need to add them
         // For now, let's handle the case where they might be null
@@ -150,6 +159,20 @@ public class Settings extends AppCompatActivity {
         if (applyThemeButton != null) {
             applyThemeButton.setOnClickListener(v -> generateAndApplyTheme());
         }
+
+        // Speculative prefetch of Insights answers trades extra API calls for instant answers
+        if (prefetchAnswersSwitch != null) {
+            prefetchAnswersSwitch.setChecked(sessionManager.isPrefetchAnswersEnabled());
+            prefetchAnswersSwitch.setOnCheckedChangeListener(
+                    (button, isChecked) -> sessionManager.setPrefetchAnswersEnabled(isChecked));
+        }
+
+        // Batched mode generates the whole Insights screen in one round trip
+        if (batchedInsightsSwitch != null) {
+            batchedInsightsSwitch.setChecked(sessionManager.isBatchedInsightsEnabled());
+            batchedInsightsSwitch.setOnCheckedChangeListener(
+                    (button, isChecked) -> sessionManager.setBatchedInsightsEnabled(isChecked));
+        }
     }
 
     // Set up theme description text watcher for real-time preview
@@ -228,7 +251,7 @@ public class Settings extends AppCompatActivity {
         Toast.makeText(this, "Generating theme...", Toast.LENGTH_SHORT).show();
 
         // Generate theme on background thread
-        new Thread(() -> {
+        tasks.launch(() -> {
             Theme newTheme = null;
 
             try {
@@ -249,7 +272,7 @@ public class Settings extends AppCompatActivity {
                 ThemeErrorHandler.ThemeError error = ThemeErrorHandler.classifyError(e);
                 ThemeErrorHandler.logThemeGenerationFailure(description, error, e);
 
-                runOnUiThread(() -> {
+                tasks.runOnUiThread(() -> {
                     Toast.makeText(this, ThemeErrorHandler.getUserFriendlyMessage(error),
                             Toast.LENGTH_LONG).show();
                 });
@@ -263,7 +286,7 @@ public class Settings extends AppCompatActivity {
 
             // Apply theme on UI thread
             Theme finalTheme = newTheme;
-            runOnUiThread(() -> {
+            tasks.runOnUiThread(() -> {
                 applyGeneratedTheme(finalTheme);
 
                 // Re-enable button
@@ -272,7 +295,7 @@ public class Settings extends AppCompatActivity {
                     applyThemeButton.setText("Apply Theme");
                 }
             });
-        }).start();
+        });
     }
 
     // Create a theme from a single hex color by deriving text and accent colors
@@ -327,8 +350,9 @@ public class Settings extends AppCompatActivity {
                 sessionManager.updateThemeColor(theme.background);
                 sessionManager.updateTextColor(theme.text);
 
-                databaseHelper.updateThemeColor(username, theme.background);
-                databaseHelper.updateTextColor(username, theme.text);
+                // Saved on the database write thread
+                database.updateThemeColor(username, theme.background, null);
+                database.updateTextColor(username, theme.text, null);
             }
 
             Toast.makeText(this, "Theme applied successfully!", Toast.LENGTH_SHORT).show();
@@ -0,0 +1,64 @@
+package com.example.group316weatherappproject;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements for the hot queries, compiled once per open database and
+ * reused. A statement keeps its bindings between calls, so callers hold
+ * its lock while binding and executing it. Writes are serialized on the
+ * single writing connection anyway, so the lock costs them nothing.
+ */
+final class StatementCache {
+
+    private final SQLiteOpenHelper helper;
+    private final Map<String, SQLiteStatement> statements = new HashMap<>();
+
+    // The database the cached statements were compiled against
+    private SQLiteDatabase database;
+
+    // Constructor for a cache over the helper's database
+    StatementCache(SQLiteOpenHelper helper) {
+        this.helper = helper;
+    }
+
+    /**
+     * Get the compiled statement for sql, compiling it on first use.
+     * If the helper was closed and reopened, everything is compiled again.
+     */
+    SQLiteStatement get(String sql) {
+        // Opened outside the cache lock: close() takes the helper's lock first
+        SQLiteDatabase db = helper.getWritableDatabase();
+        synchronized (this) {
+            if (db != database) {
+                closeStatements();
+                database = db;
+            }
+            SQLiteStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = db.compileStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+    }
+
+    /**
+     * Release all statements; call before closing the database.
+     */
+    synchronized void close() {
+        closeStatements();
+        database = null;
+    }
+
+    private void closeStatements() {
+        for (SQLiteStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+    }
+}
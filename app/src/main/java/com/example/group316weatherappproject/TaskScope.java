@@ -0,0 +1,208 @@
+package com.example.group316weatherappproject;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import okhttp3.Call;
+
+/**
+ * Background work and HTTP calls belonging to one screen.
+ * Tasks run on the shared {@link AppExecutors} pools.
+ * When the screen is destroyed every tracked Call is cancelled, every tracked
+ * task is interrupted or taken out of its pool's queue, and UI updates posted
+ * through the scope are dropped, so no bandwidth or CPU is spent on results
+ * nobody will see.
+ * Finished calls and tasks are only weakly referenced, so a long-lived
+ * screen does not accumulate them.
+ */
+public class TaskScope implements LifecycleEventObserver {
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final Set<Call> calls = Collections.newSetFromMap(new WeakHashMap<>());
+    private final Set<Future<?>> tasks = Collections.newSetFromMap(new WeakHashMap<>());
+    private final List<Runnable> cancelActions = new ArrayList<>();
+    // Pools this scope queued tasks on, purged of them on cancel
+    private final Set<PriorityExecutor> executors = new HashSet<>();
+    private final String name;
+    private volatile boolean cancelled;
+
+    private TaskScope(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a scope that is cancelled when the owner reaches ON_DESTROY.
+     */
+    public static TaskScope bindTo(LifecycleOwner owner) {
+        TaskScope scope = new TaskScope(owner.getClass().getSimpleName());
+        owner.getLifecycle().addObserver(scope);
+        return scope;
+    }
+
+    @Override
+    public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+        if (event == Lifecycle.Event.ON_DESTROY) {
+            source.getLifecycle().removeObserver(this);
+            cancel();
+        }
+    }
+
+    /**
+     * Tracks a call so it is cancelled with the scope. A call tracked after
+     * the scope was cancelled is cancelled right away.
+     */
+    public Call track(Call call) {
+        synchronized (this) {
+            if (!cancelled) {
+                calls.add(call);
+                return call;
+            }
+        }
+        call.cancel();
+        return call;
+    }
+
+    /**
+     * Tracks a task already submitted elsewhere, such as to an executor,
+     * so it is interrupted with the scope.
+     */
+    public <T> Future<T> track(Future<T> task) {
+        synchronized (this) {
+            if (!cancelled) {
+                tasks.add(task);
+                return task;
+            }
+        }
+        task.cancel(true);
+        return task;
+    }
+
+    /**
+     * Runs an action when the scope is cancelled, or right away if it already is.
+     */
+    public void doOnCancel(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                cancelActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Wraps a client so that every call it creates is tracked by this scope.
+     */
+    public Call.Factory track(Call.Factory factory) {
+        return request -> track(factory.newCall(request));
+    }
+
+    /**
+     * Runs a user-initiated task on the network pool, interrupting it if the scope is cancelled.
+     */
+    public Future<?> launch(Runnable task) {
+        return launch(AppExecutors.network(), PriorityExecutor.Priority.USER, task);
+    }
+
+    /**
+     * Queues a task on a shared pool at the given priority, interrupting it
+     * or removing it from the queue if the scope is cancelled.
+     */
+    public Future<?> launch(PriorityExecutor executor, PriorityExecutor.Priority priority, Runnable task) {
+        if (cancelled) {
+            FutureTask<Void> skipped = new FutureTask<>(task, null);
+            skipped.cancel(false);
+            return skipped;
+        }
+        addExecutor(executor);
+        return track(executor.submit(priority, task));
+    }
+
+    /**
+     * Queues a task with a result on a shared pool at the given priority,
+     * cancelling it with the scope.
+     */
+    public <T> Future<T> launch(PriorityExecutor executor, PriorityExecutor.Priority priority, Callable<T> task) {
+        if (cancelled) {
+            FutureTask<T> skipped = new FutureTask<>(task);
+            skipped.cancel(false);
+            return skipped;
+        }
+        addExecutor(executor);
+        return track(executor.submit(priority, task));
+    }
+
+    private synchronized void addExecutor(PriorityExecutor executor) {
+        executors.add(executor);
+    }
+
+    /**
+     * Runs an action on the main thread unless the scope has been cancelled
+     * by then. Runs it immediately when already on the main thread.
+     */
+    public void runOnUiThread(Runnable action) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            if (!cancelled) action.run();
+            return;
+        }
+        MAIN_HANDLER.post(() -> {
+            if (!cancelled) action.run();
+        });
+    }
+
+    // Check if the screen is still around to use results
+    public boolean isActive() {
+        return !cancelled;
+    }
+
+    /**
+     * Cancels every tracked call and interrupts every tracked task. Tasks
+     * still queued are removed from their pool's queue, so they do not hold
+     * their place until a worker reaches them.
+     */
+    public void cancel() {
+        List<Call> callsToCancel;
+        List<Future<?>> tasksToCancel;
+        List<Runnable> actions;
+        List<PriorityExecutor> pools;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            callsToCancel = new ArrayList<>(calls);
+            tasksToCancel = new ArrayList<>(tasks);
+            actions = new ArrayList<>(cancelActions);
+            pools = new ArrayList<>(executors);
+            calls.clear();
+            tasks.clear();
+            cancelActions.clear();
+            executors.clear();
+        }
+        for (Call call : callsToCancel) {
+            call.cancel();
+        }
+        for (Future<?> task : tasksToCancel) {
+            task.cancel(true);
+        }
+        for (PriorityExecutor pool : pools) {
+            pool.purge();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class ThemeErrorHandler {
     // Enum representing different types of theme generation errors
     public enum ThemeError {
         NETWORK_ERROR("Network connection failed"),
+        OFFLINE("No network connection"),
         API_KEY_MISSING("Gemini API key not configured"),
         INVALID_JSON("LLM returned invalid JSON"),
         PARSING_ERROR("Failed to parse theme colors"),
@@ -38,7 +39,11 @@ public class ThemeErrorHandler {
      * Classify an exception into a specific theme error type
      */
     public static ThemeError classifyError(Exception e) {
-        if (e instanceof IOException) {
+        if (e instanceof RateLimitException) {
+            return ThemeError.RATE_LIMIT;
+        } else if (e instanceof OfflineException) {
+            return ThemeError.OFFLINE;
+        } else if (e instanceof IOException) {
             if (e.getMessage() != null && e.getMessage().contains("timeout")) {
                 return ThemeError.TIMEOUT_ERROR;
             }
@@ -82,6 +87,8 @@ public class ThemeErrorHandler {
         switch (error) {
             case NETWORK_ERROR:
                 return "Unable to connect to theme service. Using default theme.";
+            case OFFLINE:
+                return "You're offline. Using default theme.";
             case API_KEY_MISSING:
                 return "Theme service not configured. Using default theme.";
             case INVALID_JSON:
@@ -0,0 +1,64 @@
+package com.example.group316weatherappproject;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Timeouts for each {@link ApiEndpoint}.
+ * Connect, read and write timeouts bound each network step, while the
+ * deadline bounds the whole call: retries, rate limit waits and reading a
+ * streamed body included. The deadline is therefore the worst case a screen
+ * waits for one call to that endpoint.
+ */
+public class TimeoutPolicy {
+
+    private final long connectMillis;
+    private final long readMillis;
+    private final long writeMillis;
+    private final long deadlineMillis;
+
+    private TimeoutPolicy(long connectMillis, long readMillis, long writeMillis, long deadlineMillis) {
+        this.connectMillis = connectMillis;
+        this.readMillis = readMillis;
+        this.writeMillis = writeMillis;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Policy for an endpoint.
+     * Weather and geocoding fail fast so the cached rows show. Gemini text
+     * streams, so its read timeout is the gap allowed between chunks.
+     * Image generation can take most of a minute before the first byte.
+     */
+    public static TimeoutPolicy forEndpoint(ApiEndpoint endpoint) {
+        switch (endpoint) {
+            case WEATHER:
+                return new TimeoutPolicy(5_000, 5_000, 5_000, 10_000);
+            case GEOCODE:
+                return new TimeoutPolicy(5_000, 5_000, 5_000, 8_000);
+            case GEMINI_TEXT:
+                return new TimeoutPolicy(10_000, 20_000, 10_000, 60_000);
+            case GEMINI_IMAGE:
+                return new TimeoutPolicy(10_000, 60_000, 10_000, 90_000);
+            default:
+                throw new IllegalArgumentException("No timeout policy for " + endpoint);
+        }
+    }
+
+    /**
+     * Sets these timeouts on a client builder.
+     */
+    public OkHttpClient.Builder applyTo(OkHttpClient.Builder builder) {
+        return builder
+                .connectTimeout(connectMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(writeMillis, TimeUnit.MILLISECONDS)
+                .callTimeout(deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Get the overall deadline for one call
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+}
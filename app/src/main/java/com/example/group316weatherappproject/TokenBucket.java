@@ -0,0 +1,85 @@
+package com.example.group316weatherappproject;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe token bucket that paces requests to one API model.
+ * Tokens refill continuously up to a burst capacity. A caller reserves a
+ * token and is told how long to wait for it, so concurrent callers are
+ * spaced out in order instead of all retrying at once. The bucket can also
+ * be paused, e.g. for a server Retry-After.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerMilli;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    // Constructor for a bucket that starts full and refills at tokensPerSecond
+    public TokenBucket(int capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::currentTimeMillis);
+    }
+
+    // Constructor with an explicit millisecond clock, for tests
+    TokenBucket(int capacity, double tokensPerSecond, LongSupplier clock) {
+        this.capacity = capacity;
+        this.tokensPerMilli = tokensPerSecond / 1000.0;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Reserves one token and returns how many milliseconds to wait before using it,
+     * or -1 without reserving if that wait would exceed maxWaitMillis.
+     */
+    public synchronized long reserve(long maxWaitMillis) {
+        long wait = millisUntilAvailable();
+        if (wait > maxWaitMillis) return -1;
+
+        // Going into debt keeps later callers queued behind this one
+        tokens -= 1;
+        return wait;
+    }
+
+    /**
+     * Returns a reserved token that was not used, e.g. because the caller was
+     * cancelled while waiting for it.
+     */
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * Milliseconds until a token is available, ignoring callers already queued.
+     */
+    public synchronized long millisUntilAvailable() {
+        long now = clock.getAsLong();
+        refill(now);
+
+        long wait = Math.max(0, pausedUntil - now);
+        if (tokens < 1) {
+            wait = Math.max(wait, (long) Math.ceil((1 - tokens) / tokensPerMilli));
+        }
+        return wait;
+    }
+
+    /**
+     * Hands out no tokens for the next pauseMillis, e.g. after a 429 with Retry-After.
+     */
+    public synchronized void pause(long pauseMillis) {
+        pausedUntil = Math.max(pausedUntil, clock.getAsLong() + pauseMillis);
+    }
+
+    // Adds the tokens earned since the last refill, up to capacity
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMilli);
+            lastRefill = now;
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package com.example.group316weatherappproject;
 
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
-import android.util.Base64;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
@@ -18,12 +16,15 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
+import okhttp3.Call;
 import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -62,9 +63,16 @@ public class WeatherActivity extends AppCompatActivity {
     private String currentCondition;
     private int currentHumidity;
     private double currentWindSpeed;
+    private WeatherObservation currentObservation;
+
+    // Network state, for serving cached weather at once while offline
+    private ConnectivityMonitor connectivity;
+
+    // Weather refreshes and image generation, cancelled when the screen closes
+    private final TaskScope tasks = TaskScope.bindTo(this);
 
     // HTTP + JSON helpers
-    private final OkHttpClient httpClient = new OkHttpClient();
+    private final Call.Factory httpClient = tasks.track(HttpClientProvider.getClient(ApiEndpoint.GEMINI_IMAGE));
     private final Gson json = new Gson();
     private static final String GEMINI_IMAGE_ENDPOINT =
             "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-image:generateContent";
@@ -72,8 +80,11 @@ public class WeatherActivity extends AppCompatActivity {
             "https://api.openweathermap.org/data/2.5/weather";
     private static final MediaType MEDIA_TYPE_JSON =
             MediaType.parse("application/json; charset=utf-8");
-    // ADD a new field to store the weather JSON
-    private String weatherJson = null;
+    // Local weather cache
+    private DatabaseHelper databaseHelper;
+    private AsyncDatabase database;
+    // Generated city views, keyed by city and weather bucket
+    private CityImageCache imageCache;
 
     // Initializes the weather screen, receives city data, and kicks off weather loading
     @Override
@@ -88,6 +99,12 @@ public class WeatherActivity extends AppCompatActivity {
         latitude = getIntent().getDoubleExtra("LAT", 0.0);
         longitude = getIntent().getDoubleExtra("LON", 0.0);
 
+        databaseHelper = DatabaseHelper.getInstance(this);
+        // Cache writes go to the database write thread
+        database = new AsyncDatabase(databaseHelper, tasks);
+        imageCache = CityImageCache.getInstance(this);
+        connectivity = ConnectivityMonitor.getInstance(this);
+
         // Setup UI
         initializeViews();
         setupButtonListeners();
@@ -153,9 +170,12 @@ public class WeatherActivity extends AppCompatActivity {
             Intent intent = new Intent(WeatherActivity.this, InsightsActivity.class);
             intent.putExtra("cityName", cityName);
 
-            // Pass the raw weather JSON data for LLM processing
-            if (weatherJson != null && !weatherJson.isEmpty()) {
-                intent.putExtra("weatherJson", weatherJson);
+            intent.putExtra("lat", latitude);
+            intent.putExtra("lon", longitude);
+
+            // Hand over the already-parsed observation so Insights doesn't parse it again
+            if (currentObservation != null) {
+                intent.putExtra("weatherObservation", currentObservation);
             }
 
             startActivity(intent);
@@ -164,6 +184,17 @@ public class WeatherActivity extends AppCompatActivity {
 
     // Builds a prompt and calls Gemini to generate a photorealistic city view image
     private void generateCityView() {
+        // Reuse an image generated earlier for the same city and conditions
+        String imageKey = currentObservation != null ? WeatherBucket.imageKey(cityName, currentObservation) : null;
+        if (imageKey != null) {
+            Bitmap cachedImage = imageCache.getFromMemory(imageKey);
+            if (cachedImage != null) {
+                Log.d(TAG, "City view memory cache hit for " + imageKey);
+                showCityView(cachedImage, "City view loaded!");
+                return;
+            }
+        }
+
         loadingStatusText.setVisibility(View.VISIBLE);
         btnGenerateCityView.setEnabled(false);
 
@@ -189,39 +220,90 @@ public class WeatherActivity extends AppCompatActivity {
         String prompt = sb.toString();
         Log.d(TAG, "Generating city view for: " + cityName + " with prompt: " + prompt);
 
-        new Thread(() -> {
-            try {
-                String apiKey = BuildConfig.GEMINI_API_KEY;
-                Request req = prepareGeminiImageRequest(prompt, apiKey);
-                Bitmap generatedImage = executeGeminiImageRequest(req);
-
-                runOnUiThread(() -> {
-                    if (generatedImage != null) {
-                        cityImageView.setImageBitmap(generatedImage);
-                        cityImageView.setVisibility(View.VISIBLE);
-                        // Hide the generate button after a successful generation
-                        btnGenerateCityView.setVisibility(View.GONE);
-                        Toast.makeText(this, "City view generated!", Toast.LENGTH_SHORT).show();
-                    } else {
-                        cityImageView.setVisibility(View.GONE);
-                        Toast.makeText(this, "Failed to generate city view", Toast.LENGTH_SHORT).show();
-                    }
+        int targetWidth = getCityImageWidth();
+        int targetHeight = getCityImageHeight();
 
-                    loadingStatusText.setVisibility(View.GONE);
-                    btnGenerateCityView.setEnabled(true);
-                });
+        // A stored image only needs decoding; the network pool is used only on a miss
+        tasks.launch(AppExecutors.decode(), PriorityExecutor.Priority.USER, () -> {
+            if (imageKey != null) {
+                Bitmap storedImage = imageCache.getFromDisk(imageKey, targetWidth, targetHeight);
+                if (storedImage != null) {
+                    Log.d(TAG, "City view disk cache hit for " + imageKey);
+                    tasks.runOnUiThread(() -> showCityView(storedImage, "City view loaded!"));
+                    return;
+                }
+            }
+            tasks.launch(() -> generateCityImage(prompt, imageKey, targetWidth, targetHeight));
+        });
+    }
 
-            } catch (IOException e) {
-                Log.e(TAG, "Error generating city view", e);
-                runOnUiThread(() -> {
+    // Generates the city view with Gemini, stores it in the image cache and shows it
+    private void generateCityImage(String prompt, String imageKey, int targetWidth, int targetHeight) {
+        File pendingImage = null;
+        try {
+            if (imageKey != null) {
+                pendingImage = imageCache.createTempFile();
+            }
+
+            String apiKey = BuildConfig.GEMINI_API_KEY;
+            Request req = prepareGeminiImageRequest(prompt, apiKey);
+            Bitmap generatedImage = executeGeminiImageRequest(req, targetWidth, targetHeight, pendingImage);
+
+            if (pendingImage != null) {
+                if (generatedImage != null) {
+                    imageCache.put(imageKey, generatedImage, pendingImage);
+                } else {
+                    pendingImage.delete();
+                }
+            }
+
+            tasks.runOnUiThread(() -> {
+                if (generatedImage != null) {
+                    showCityView(generatedImage, "City view generated!");
+                } else {
                     cityImageView.setVisibility(View.GONE);
-                    cityImageView.setImageDrawable(null);
-                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    Toast.makeText(this, "Failed to generate city view", Toast.LENGTH_SHORT).show();
                     loadingStatusText.setVisibility(View.GONE);
                     btnGenerateCityView.setEnabled(true);
-                });
-            }
-        }).start();
+                }
+            });
+
+        } catch (IOException e) {
+            Log.e(TAG, "Error generating city view", e);
+            if (pendingImage != null) pendingImage.delete();
+            tasks.runOnUiThread(() -> {
+                cityImageView.setVisibility(View.GONE);
+                cityImageView.setImageDrawable(null);
+                Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                loadingStatusText.setVisibility(View.GONE);
+                btnGenerateCityView.setEnabled(true);
+            });
+        }
+    }
+
+    // Shows a generated or cached city view and hides the generate button
+    private void showCityView(Bitmap image, String message) {
+        cityImageView.setImageBitmap(image);
+        cityImageView.setVisibility(View.VISIBLE);
+        // Hide the generate button after a successful generation
+        btnGenerateCityView.setVisibility(View.GONE);
+        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+
+        loadingStatusText.setVisibility(View.GONE);
+        btnGenerateCityView.setEnabled(true);
+    }
+
+    // Width in pixels the city view is shown at; the view is hidden until an image arrives, so fall back to the screen width
+    private int getCityImageWidth() {
+        if (cityImageView.getWidth() > 0) return cityImageView.getWidth();
+        return getResources().getDisplayMetrics().widthPixels;
+    }
+
+    // Height in pixels the city view is shown at, from its fixed layout height
+    private int getCityImageHeight() {
+        if (cityImageView.getHeight() > 0) return cityImageView.getHeight();
+        int layoutHeight = cityImageView.getLayoutParams().height;
+        return layoutHeight > 0 ? layoutHeight : getResources().getDisplayMetrics().heightPixels;
     }
 
     // Builds an HTTP request for the Gemini image generation endpoint
@@ -270,8 +352,9 @@ public class WeatherActivity extends AppCompatActivity {
         return request;
     }
 
-    // Executes the Gemini image request and returns a Bitmap if successful
-    private Bitmap executeGeminiImageRequest(Request request) throws IOException {
+    // Executes the Gemini image request and returns a Bitmap if successful, decoded at the given view size as the body arrives.
+    // If copyTo is not null the encoded image is also saved to that file.
+    private Bitmap executeGeminiImageRequest(Request request, int targetWidth, int targetHeight, File copyTo) throws IOException {
         try (Response response = httpClient.newCall(request).execute()) {
 
             if (!response.isSuccessful()) {
@@ -280,53 +363,53 @@ public class WeatherActivity extends AppCompatActivity {
                 throw new IOException("API request failed");
             }
 
-            String responseBody = response.body().string();
-            return parseImageResponse(responseBody);
+            // Stream the inline base64 image straight into the bitmap decoder
+            if (copyTo == null) {
+                return InlineImageDecoder.decode(response.body(), targetWidth, targetHeight, null);
+            }
+            try (OutputStream copy = new BufferedOutputStream(new FileOutputStream(copyTo))) {
+                return InlineImageDecoder.decode(response.body(), targetWidth, targetHeight, copy);
+            }
         }
     }
 
-    // Parses the Gemini image response and decodes the inline base64 image
-    private Bitmap parseImageResponse(String responseBody) {
-        try {
-            JsonObject root = JsonParser.parseString(responseBody).getAsJsonObject();
-
-            JsonArray candidates = root.getAsJsonArray("candidates");
-            if (candidates == null || candidates.size() == 0) return null;
-
-            JsonObject first = candidates.get(0).getAsJsonObject();
-            JsonObject content = first.getAsJsonObject("content");
-            JsonArray parts = content.getAsJsonArray("parts");
-
-            for (int i = 0; i < parts.size(); i++) {
-                JsonObject part = parts.get(i).getAsJsonObject();
-
-                if (part.has("inlineData")) {
-                    String base64Data = part.getAsJsonObject("inlineData").get("data").getAsString();
-                    byte[] bytes = Base64.decode(base64Data, Base64.DEFAULT);
-
-                    return BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+    // Fetches weather data, painting the cached observation first and refreshing it in the background
+    private void fetchWeatherData() {
+        tasks.launch(() -> {
+            // Stale-while-revalidate: show the last stored observation right away
+            boolean showingCached = false;
+            try {
+                CachedWeather cached = databaseHelper.getCachedWeather(cityName, latitude, longitude);
+                if (cached != null) {
+                    WeatherObservation observation = WeatherObservation.fromJson(cached.getPayload());
+                    showObservation(observation);
+                    showingCached = true;
+                    Log.d(TAG, "Showing cached weather for " + cityName + " (age " + cached.getAgeMillis() + " ms)");
+                    if (cached.isFresh()) {
+                        return;
+                    }
                 }
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to read weather cache", e);
             }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to parse image response", e);
-        }
-        return null;
-    }
+            if (!ConnectivityMonitor.isOnline()) {
+                // Refresh as soon as the network returns, while this screen is still open
+                connectivity.runWhenOnline(tasks, "WeatherActivity:" + cityName, this::fetchWeatherData);
+                reportWeatherFailure("You're offline. Weather will refresh when you reconnect.", showingCached);
+                return;
+            }
 
-    // Fetches weather data from OpenWeatherMap API
-    private void fetchWeatherData() {
-        new Thread(() -> {
             try {
                 String apiKey = BuildConfig.OPENWEATHER_API_KEY;
                 if (apiKey == null || apiKey.isEmpty() || apiKey.equals("YOUR_OPENWEATHER_API_KEY")) {
-                    runOnUiThread(() -> updateWeatherError("Weather API key missing"));
+                    reportWeatherFailure("Weather API key missing", showingCached);
                     return;
                 }
 
                 if (latitude == 0.0 && longitude == 0.0) {
                     Log.e(TAG, "Invalid coordinates: (0.0, 0.0)");
-                    runOnUiThread(() -> updateWeatherError("Invalid city coordinates"));
+                    reportWeatherFailure("Invalid city coordinates", showingCached);
                     return;
                 }
 
@@ -344,77 +427,80 @@ public class WeatherActivity extends AppCompatActivity {
                         .get()
                         .build();
 
-                try (Response response = httpClient.newCall(request).execute()) {
+                // Hedged, so one stalled connection does not hold up the refresh; both calls close with the screen
+                try (Response response = HttpClientProvider.getWeatherCalls().execute(request, tasks)) {
                     if (!response.isSuccessful()) {
                         String error = response.body() != null ? response.body().string() : "Unknown error";
                         Log.e(TAG, "Weather API error (HTTP " + response.code() + "): " + error);
                         final String errorMsg = "HTTP " + response.code() + ": " + error;
-                        runOnUiThread(() -> {
-                            updateWeatherError("Failed to fetch weather");
+                        final boolean keepCached = showingCached;
+                        tasks.runOnUiThread(() -> {
+                            if (!keepCached) updateWeatherError("Failed to fetch weather");
                             Toast.makeText(this, errorMsg, Toast.LENGTH_LONG).show();
                         });
                         return;
                     }
 
-                    String responseBody = response.body().string();
-                    weatherJson = responseBody;
                     Log.d(TAG, "Got response, parsing...");
-                    parseWeatherData(responseBody);
+                    WeatherObservation observation;
+                    try {
+                        // Decode straight from the response stream, no intermediate String
+                        observation = WeatherObservation.fromResponseBody(response.body());
+                    } catch (Exception e) {
+                        Log.e(TAG, "Failed to parse weather data", e);
+                        reportWeatherFailure("Failed to parse weather data", showingCached);
+                        return;
+                    }
+
+                    Log.d(TAG, "Successfully parsed weather data");
+                    String payload = observation.toJson();
+                    database.putCachedWeather(cityName, latitude, longitude, payload, CachedWeather.DEFAULT_TTL_MS, null);
+                    showObservation(observation);
                 }
 
             } catch (Exception e) {
                 Log.e(TAG, "Error fetching weather", e);
-                runOnUiThread(() -> updateWeatherError("Error: " + e.getMessage()));
+                reportWeatherFailure("Error: " + e.getMessage(), showingCached);
             }
-        }).start();
+        });
     }
 
-    // Parses JSON response from weather API
-    private void parseWeatherData(String jsonResponse) {
-        try {
-            Log.d(TAG, "Weather API Response: " + jsonResponse);
-            JsonObject root = JsonParser.parseString(jsonResponse).getAsJsonObject();
-
-            JsonObject main = root.getAsJsonObject("main");
-            double temp = main.get("temp").getAsDouble();
-            int humidity = main.get("humidity").getAsInt();
-
-            JsonArray weatherArray = root.getAsJsonArray("weather");
-            String condition = weatherArray.get(0).getAsJsonObject().get("description").getAsString();
-
-            JsonObject wind = root.getAsJsonObject("wind");
-            double windSpeed = wind.get("speed").getAsDouble();
-
-            long timestamp = root.get("dt").getAsLong();
-
-            Log.d(TAG, "Successfully parsed weather data");
-            runOnUiThread(() -> updateWeatherUI(timestamp, temp, condition, humidity, windSpeed));
+    // Shows a weather error, or only a toast when a cached observation is already on screen
+    private void reportWeatherFailure(String message, boolean showingCached) {
+        tasks.runOnUiThread(() -> {
+            if (showingCached) {
+                Toast.makeText(this, "Showing saved weather. " + message, Toast.LENGTH_SHORT).show();
+            } else {
+                updateWeatherError(message);
+            }
+        });
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to parse weather data", e);
-            runOnUiThread(() -> updateWeatherError("Failed to parse weather data"));
-        }
+    // Posts a decoded observation to the weather fields on the UI thread
+    private void showObservation(WeatherObservation observation) {
+        tasks.runOnUiThread(() -> updateWeatherUI(observation));
     }
 
     // Updates UI with weather information
-    private void updateWeatherUI(long timestamp, double temp, String condition, int humidity, double windSpeed) {
+    private void updateWeatherUI(WeatherObservation observation) {
         java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss", java.util.Locale.US);
         sdf.setTimeZone(java.util.TimeZone.getTimeZone("UTC"));
-        String dateTime = sdf.format(new java.util.Date(timestamp * 1000));
+        String dateTime = sdf.format(new java.util.Date(observation.getTimestamp() * 1000));
 
-        String displayCondition = condition.substring(0, 1).toUpperCase() + condition.substring(1);
+        String displayCondition = observation.getDisplayCondition();
 
 
         weatherDateTime.setText("Date & Time (UTC): " + dateTime);
-        weatherTemperature.setText(String.format("Temperature: %.1f°C", temp));
-        weatherCondition.setText("Condition: " + condition.substring(0, 1).toUpperCase() + condition.substring(1));
-        weatherHumidity.setText("Humidity: " + humidity + "%");
-        weatherWind.setText(String.format("Wind: %.1f m/s", windSpeed));
+        weatherTemperature.setText(String.format("Temperature: %.1f°C", observation.getTemperature()));
+        weatherCondition.setText("Condition: " + displayCondition);
+        weatherHumidity.setText("Humidity: " + observation.getHumidity() + "%");
+        weatherWind.setText(String.format("Wind: %.1f m/s", observation.getWindSpeed()));
 
-        currentTempC = temp;
+        currentObservation = observation;
+        currentTempC = observation.getTemperature();
         currentCondition = displayCondition;
-        currentHumidity = humidity;
-        currentWindSpeed = windSpeed;
+        currentHumidity = observation.getHumidity();
+        currentWindSpeed = observation.getWindSpeed();
         weatherIsLoaded = true;
     }
 
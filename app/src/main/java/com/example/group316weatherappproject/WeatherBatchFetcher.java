@@ -0,0 +1,239 @@
+package com.example.group316weatherappproject;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Fetches current conditions for a whole list of saved cities in one refresh.
+ * Cached observations are reported first, then stale cities are refreshed
+ * through OpenWeather's multi-city group endpoint when their city IDs are
+ * known, and through a bounded-concurrency fan-out of single-city calls otherwise.
+ * Each result is reported as soon as it arrives and queued for the weather
+ * cache on the database write thread; cache lookups run on the read pool.
+ */
+public class WeatherBatchFetcher {
+
+    private static final String TAG = "WeatherBatchFetcher";
+
+    private static final String OPENWEATHER_API_ENDPOINT =
+            "https://api.openweathermap.org/data/2.5/weather";
+    private static final String OPENWEATHER_GROUP_ENDPOINT =
+            "https://api.openweathermap.org/data/2.5/group";
+
+    // OpenWeather accepts at most 20 city IDs per group request
+    private static final int MAX_GROUP_SIZE = 20;
+    // Single-city calls in flight at once during the fan-out
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    /**
+     * Receives a short summary for a city whenever cached or fresh data is available.
+     * Called on a background thread.
+     */
+    public interface Listener {
+        void onCityWeather(City city, String summary);
+    }
+
+    private final Call.Factory httpClient;
+    private final AsyncDatabase database;
+    private final String apiKey;
+
+    // Constructor to initialize the fetcher with the shared client, the screen's database and API key
+    public WeatherBatchFetcher(Call.Factory httpClient, AsyncDatabase database, String apiKey) {
+        this.httpClient = httpClient;
+        this.database = database;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * Refreshes weather for every city in the list. Blocks until all
+     * requests have finished, so call it from a background thread.
+     */
+    public void fetchAll(List<City> cities, Listener listener) {
+        if (apiKey == null || apiKey.isEmpty() || apiKey.equals("YOUR_OPENWEATHER_API_KEY")) {
+            Log.w(TAG, "Weather API key missing, skipping batch refresh");
+            return;
+        }
+
+        // Look up every city's cache row at once on the read pool
+        Map<City, Future<CachedWeather>> lookups = new LinkedHashMap<>();
+        for (City city : cities) {
+            if (city.lat == 0.0 && city.lon == 0.0) continue;
+            lookups.put(city, database.getCachedWeather(city.name, city.lat, city.lon, null));
+        }
+
+        // Report cached rows right away and collect the ones that need a refresh
+        Map<Long, List<City>> byCityId = new LinkedHashMap<>();
+        List<City> withoutId = new ArrayList<>();
+        for (Map.Entry<City, Future<CachedWeather>> lookup : lookups.entrySet()) {
+            City city = lookup.getKey();
+            CachedWeather cached = awaitCachedWeather(lookup.getValue());
+            long cityId = 0;
+            if (cached != null) {
+                try {
+                    WeatherObservation observation = WeatherObservation.fromJson(cached.getPayload());
+                    listener.onCityWeather(city, observation.getSummary());
+                    if (cached.isFresh()) continue;
+                    cityId = observation.getCityId();
+                } catch (Exception e) {
+                    Log.w(TAG, "Ignoring unreadable cache entry for " + city.name, e);
+                }
+            }
+
+            if (cityId > 0) {
+                List<City> group = byCityId.get(cityId);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    byCityId.put(cityId, group);
+                }
+                group.add(city);
+            } else {
+                withoutId.add(city);
+            }
+        }
+
+        // Cities with a known OpenWeather ID go through the group endpoint, 20 at a time
+        List<Long> ids = new ArrayList<>(byCityId.keySet());
+        for (int start = 0; start < ids.size(); start += MAX_GROUP_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + MAX_GROUP_SIZE, ids.size()));
+            Map<Long, List<City>> pending = new HashMap<>();
+            for (Long id : chunk) pending.put(id, byCityId.get(id));
+
+            try {
+                fetchGroup(chunk, pending, listener);
+            } catch (Exception e) {
+                Log.w(TAG, "Group request failed, falling back to single-city calls", e);
+            }
+
+            // Anything the group call did not return is fetched individually
+            for (List<City> missed : pending.values()) withoutId.addAll(missed);
+        }
+
+        fetchIndividually(withoutId, listener);
+        Log.d(TAG, "Batch refresh finished for " + cities.size() + " cities");
+    }
+
+    // Waits for a cache lookup, treating a failed one as a miss
+    private static CachedWeather awaitCachedWeather(Future<CachedWeather> lookup) {
+        try {
+            return lookup.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            Log.w(TAG, "Weather cache lookup failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Fetches one chunk of city IDs with a single group request.
+     * Cities that were answered are removed from {@code pending}.
+     */
+    private void fetchGroup(List<Long> ids, Map<Long, List<City>> pending, Listener listener) throws IOException {
+        StringBuilder idList = new StringBuilder();
+        for (Long id : ids) {
+            if (idList.length() > 0) idList.append(',');
+            idList.append(id);
+        }
+
+        String url = OPENWEATHER_GROUP_ENDPOINT +
+                "?id=" + idList +
+                "&appid=" + apiKey +
+                "&units=metric";
+
+        Request request = new Request.Builder().url(url).get().build();
+
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Group request failed with HTTP " + response.code());
+            }
+
+            for (WeatherObservation observation : WeatherObservation.fromGroupResponseBody(response.body())) {
+                List<City> matches = pending.remove(observation.getCityId());
+                if (matches == null) continue;
+
+                String payload = observation.toJson();
+                String summary = observation.getSummary();
+                for (City city : matches) {
+                    database.putCachedWeather(city.name, city.lat, city.lon, payload, CachedWeather.DEFAULT_TTL_MS, null);
+                    listener.onCityWeather(city, summary);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches each city by coordinates, keeping at most
+     * MAX_CONCURRENT_REQUESTS calls in flight, and waits for all of them.
+     */
+    private void fetchIndividually(List<City> cities, Listener listener) {
+        if (cities.isEmpty()) return;
+
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_REQUESTS);
+        CountDownLatch done = new CountDownLatch(cities.size());
+
+        for (City city : cities) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            String url = OPENWEATHER_API_ENDPOINT +
+                    "?lat=" + city.lat +
+                    "&lon=" + city.lon +
+                    "&appid=" + apiKey +
+                    "&units=metric";
+            Request request = new Request.Builder().url(url).get().build();
+
+            httpClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    Log.w(TAG, "Weather request failed for " + city.name, e);
+                    permits.release();
+                    done.countDown();
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (Response r = response) {
+                        if (r.isSuccessful() && r.body() != null) {
+                            WeatherObservation observation = WeatherObservation.fromResponseBody(r.body());
+                            database.putCachedWeather(city.name, city.lat, city.lon, observation.toJson(),
+                                    CachedWeather.DEFAULT_TTL_MS, null);
+                            listener.onCityWeather(city, observation.getSummary());
+                        } else {
+                            Log.w(TAG, "Weather request for " + city.name + " returned HTTP " + r.code());
+                        }
+                    } catch (Exception e) {
+                        Log.w(TAG, "Failed to read weather for " + city.name, e);
+                    } finally {
+                        permits.release();
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
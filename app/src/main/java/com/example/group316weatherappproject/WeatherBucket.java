@@ -0,0 +1,99 @@
+package com.example.group316weatherappproject;
+
+import java.util.Locale;
+
+/**
+ * Groups weather observations into coarse buckets, so that generated content
+ * for one set of conditions can be reused for others that look the same.
+ * Two observations in the same bucket would produce practically the same
+ * city image or Insights, so the bucket signature can serve as a cache key.
+ */
+public class WeatherBucket {
+
+    // Width of one temperature band in °C
+    static final int TEMPERATURE_BAND_C = 5;
+
+    // Width of one relative humidity band in %
+    static final int HUMIDITY_BAND = 20;
+
+    // Dawn and dusk last this long either side of sunrise and sunset
+    private static final long TWILIGHT_SECONDS = 45 * 60;
+
+    private WeatherBucket() {}
+
+    /**
+     * Cache key for a generated city image, e.g. "chicago|rain|10|dusk".
+     */
+    public static String imageKey(String cityName, WeatherObservation observation) {
+        String condition = observation.getConditionGroup() != null
+                ? observation.getConditionGroup() : observation.getCondition();
+        return normalize(cityName) + "|" + normalize(condition) + "|"
+                + temperatureBand(observation.getTemperature()) + "|"
+                + timeOfDay(observation);
+    }
+
+    /**
+     * Cache key for generated Insights, e.g. "chicago|10|h80|breezy|light rain".
+     * Humidity and wind are included as well, since questions and answers
+     * often mention them.
+     */
+    public static String insightsKey(String cityName, double temperatureC, int humidity,
+                                     double windSpeed, String description) {
+        return normalize(cityName) + "|" + temperatureBand(temperatureC) + "|h"
+                + humidityBand(humidity) + "|" + windBand(windSpeed) + "|"
+                + normalize(description);
+    }
+
+    /**
+     * Lower bound of the temperature band holding the given temperature, e.g. 12.3 -> 10, -0.5 -> -5.
+     */
+    static int temperatureBand(double temperatureC) {
+        return (int) Math.floor(temperatureC / TEMPERATURE_BAND_C) * TEMPERATURE_BAND_C;
+    }
+
+    /**
+     * Lower bound of the humidity band holding the given relative humidity, e.g. 81 -> 80.
+     */
+    static int humidityBand(int humidity) {
+        return (humidity / HUMIDITY_BAND) * HUMIDITY_BAND;
+    }
+
+    /**
+     * "calm", "breezy", "windy" or "stormy" for a wind speed in m/s,
+     * roughly Beaufort 0-2, 3-4, 5-7 and 8+.
+     */
+    static String windBand(double windSpeed) {
+        if (windSpeed < 3.4) return "calm";
+        if (windSpeed < 8.0) return "breezy";
+        if (windSpeed < 17.2) return "windy";
+        return "stormy";
+    }
+
+    /**
+     * "dawn", "day", "dusk" or "night" at the observation time.
+     * Uses sunrise and sunset when known, otherwise the local hour.
+     */
+    static String timeOfDay(WeatherObservation observation) {
+        long now = observation.getTimestamp();
+        long sunrise = observation.getSunrise();
+        long sunset = observation.getSunset();
+
+        if (sunrise > 0 && sunset > sunrise) {
+            if (Math.abs(now - sunrise) <= TWILIGHT_SECONDS) return "dawn";
+            if (Math.abs(now - sunset) <= TWILIGHT_SECONDS) return "dusk";
+            return (now > sunrise && now < sunset) ? "day" : "night";
+        }
+
+        long localSeconds = now + observation.getTimezoneOffset();
+        int hour = (int) (Math.floorMod(localSeconds, 24 * 60 * 60L) / 3600);
+        if (hour >= 5 && hour < 7) return "dawn";
+        if (hour >= 7 && hour < 18) return "day";
+        if (hour >= 18 && hour < 20) return "dusk";
+        return "night";
+    }
+
+    // Trims and lowercases a name so spelling variants share a bucket
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.US);
+    }
+}
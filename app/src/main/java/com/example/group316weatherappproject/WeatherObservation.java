@@ -0,0 +1,425 @@
+package com.example.group316weatherappproject;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Current conditions for one location, decoded from an OpenWeather
+ * "current weather" document.
+ * The decoder streams tokens straight from the response body with a JsonReader,
+ * picks out the fields the app uses and skips everything else, so no
+ * intermediate String or JsonObject tree is ever built.
+ * Observations are Parcelable so screens can hand them over without re-parsing.
+ */
+public class WeatherObservation implements Parcelable {
+
+    private long cityId;
+    private String cityName;
+    private long timestamp;        // observation time, unix seconds (UTC)
+    private int timezoneOffset;    // shift from UTC in seconds
+    private double temperature;    // °C
+    private double feelsLike;      // °C
+    private int humidity;          // %
+    private int pressure;          // hPa
+    private int visibility;        // meters
+    private double windSpeed;      // m/s
+    private String conditionGroup; // e.g. "Rain", "Clouds"
+    private String condition;      // e.g. "light rain"
+    private long sunrise;          // unix seconds (UTC)
+    private long sunset;           // unix seconds (UTC)
+
+    // Instances are created by the decoder or from a Parcel only
+    private WeatherObservation() {}
+
+    // Restores an observation written by writeToParcel
+    private WeatherObservation(Parcel in) {
+        cityId = in.readLong();
+        cityName = in.readString();
+        timestamp = in.readLong();
+        timezoneOffset = in.readInt();
+        temperature = in.readDouble();
+        feelsLike = in.readDouble();
+        humidity = in.readInt();
+        pressure = in.readInt();
+        visibility = in.readInt();
+        windSpeed = in.readDouble();
+        conditionGroup = in.readString();
+        condition = in.readString();
+        sunrise = in.readLong();
+        sunset = in.readLong();
+    }
+
+    public static final Creator<WeatherObservation> CREATOR = new Creator<WeatherObservation>() {
+        @Override
+        public WeatherObservation createFromParcel(Parcel in) {
+            return new WeatherObservation(in);
+        }
+
+        @Override
+        public WeatherObservation[] newArray(int size) {
+            return new WeatherObservation[size];
+        }
+    };
+
+    // Writes the decoded fields only, keeping the Binder transaction small
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeLong(cityId);
+        dest.writeString(cityName);
+        dest.writeLong(timestamp);
+        dest.writeInt(timezoneOffset);
+        dest.writeDouble(temperature);
+        dest.writeDouble(feelsLike);
+        dest.writeInt(humidity);
+        dest.writeInt(pressure);
+        dest.writeInt(visibility);
+        dest.writeDouble(windSpeed);
+        dest.writeString(conditionGroup);
+        dest.writeString(condition);
+        dest.writeLong(sunrise);
+        dest.writeLong(sunset);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /**
+     * Decodes an observation directly from an OkHttp response body.
+     * The body is consumed but not closed; the caller still owns the Response.
+     */
+    public static WeatherObservation fromResponseBody(ResponseBody body) throws IOException {
+        JsonReader reader = new JsonReader(body.charStream());
+        return decode(reader);
+    }
+
+    /**
+     * Decodes an observation from a stored document, such as a weather cache payload.
+     */
+    public static WeatherObservation fromJson(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return decode(reader);
+        }
+    }
+
+    /**
+     * Decodes the "list" of an OpenWeather group response, one observation per city.
+     */
+    public static List<WeatherObservation> fromGroupResponseBody(ResponseBody body) throws IOException {
+        List<WeatherObservation> observations = new ArrayList<>();
+        JsonReader reader = new JsonReader(body.charStream());
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("list") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    observations.add(decode(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return observations;
+    }
+
+    /**
+     * Reads one observation object from the reader's current position.
+     * @throws IOException if the document is malformed or lacks temperature or condition
+     */
+    public static WeatherObservation decode(JsonReader reader) throws IOException {
+        WeatherObservation o = new WeatherObservation();
+        boolean hasTemperature = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    o.cityId = reader.nextLong();
+                    break;
+                case "name":
+                    o.cityName = reader.nextString();
+                    break;
+                case "dt":
+                    o.timestamp = reader.nextLong();
+                    break;
+                case "timezone":
+                    o.timezoneOffset = reader.nextInt();
+                    break;
+                case "visibility":
+                    // Usually whole meters, but read decimals rather than fail
+                    o.visibility = (int) reader.nextDouble();
+                    break;
+                case "main":
+                    hasTemperature = readMain(reader, o);
+                    break;
+                case "weather":
+                    readWeather(reader, o);
+                    break;
+                case "wind":
+                    readWind(reader, o);
+                    break;
+                case "sys":
+                    readSys(reader, o);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasTemperature || o.condition == null) {
+            throw new IOException("Incomplete weather observation");
+        }
+        return o;
+    }
+
+    // Reads the "main" object; returns true if it contained a temperature
+    private static boolean readMain(JsonReader reader, WeatherObservation o) throws IOException {
+        boolean hasTemperature = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "temp":
+                    o.temperature = reader.nextDouble();
+                    hasTemperature = true;
+                    break;
+                case "feels_like":
+                    o.feelsLike = reader.nextDouble();
+                    break;
+                case "humidity":
+                    o.humidity = reader.nextInt();
+                    break;
+                case "pressure":
+                    o.pressure = (int) reader.nextDouble();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return hasTemperature;
+    }
+
+    // Reads the "weather" array, keeping only the first (primary) condition that is not null
+    private static void readWeather(JsonReader reader, WeatherObservation o) throws IOException {
+        reader.beginArray();
+        boolean first = true;
+        while (reader.hasNext()) {
+            if (!first || reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            first = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "main":
+                        o.conditionGroup = reader.nextString();
+                        break;
+                    case "description":
+                        o.condition = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
+    // Reads the "wind" object
+    private static void readWind(JsonReader reader, WeatherObservation o) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("speed") && reader.peek() != JsonToken.NULL) {
+                o.windSpeed = reader.nextDouble();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    // Reads the "sys" object for sunrise and sunset
+    private static void readSys(JsonReader reader, WeatherObservation o) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "sunrise":
+                    o.sunrise = reader.nextLong();
+                    break;
+                case "sunset":
+                    o.sunset = reader.nextLong();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Writes a trimmed OpenWeather-shaped document holding only the decoded fields.
+     * The result can be read back with {@link #fromJson(String)}.
+     */
+    public String toJson() {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginObject();
+            writer.name("id").value(cityId);
+            if (cityName != null) writer.name("name").value(cityName);
+            writer.name("dt").value(timestamp);
+            writer.name("timezone").value(timezoneOffset);
+            writer.name("visibility").value(visibility);
+
+            writer.name("main").beginObject();
+            writer.name("temp").value(temperature);
+            writer.name("feels_like").value(feelsLike);
+            writer.name("humidity").value(humidity);
+            writer.name("pressure").value(pressure);
+            writer.endObject();
+
+            writer.name("weather").beginArray().beginObject();
+            if (conditionGroup != null) writer.name("main").value(conditionGroup);
+            writer.name("description").value(condition);
+            writer.endObject().endArray();
+
+            writer.name("wind").beginObject();
+            writer.name("speed").value(windSpeed);
+            writer.endObject();
+
+            writer.name("sys").beginObject();
+            writer.name("sunrise").value(sunrise);
+            writer.name("sunset").value(sunset);
+            writer.endObject();
+
+            writer.endObject();
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Condition with its first letter capitalized, e.g. "Light rain".
+     */
+    public String getDisplayCondition() {
+        if (condition == null || condition.isEmpty()) return condition;
+        return condition.substring(0, 1).toUpperCase() + condition.substring(1);
+    }
+
+    /**
+     * One-line summary shown under a city name, e.g. "12.3°C · Light rain".
+     */
+    public String getSummary() {
+        return String.format(Locale.US, "%.1f°C · %s", temperature, getDisplayCondition());
+    }
+
+    // Get the OpenWeather city ID (0 if unknown)
+    public long getCityId() {
+        return cityId;
+    }
+
+    // Get the city name reported by OpenWeather
+    public String getCityName() {
+        return cityName;
+    }
+
+    // Get the observation time in unix seconds
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    // Get the location's shift from UTC in seconds
+    public int getTimezoneOffset() {
+        return timezoneOffset;
+    }
+
+    // Get the temperature in °C
+    public double getTemperature() {
+        return temperature;
+    }
+
+    // Get the perceived temperature in °C
+    public double getFeelsLike() {
+        return feelsLike;
+    }
+
+    // Get the relative humidity in %
+    public int getHumidity() {
+        return humidity;
+    }
+
+    // Get the sea-level pressure in hPa
+    public int getPressure() {
+        return pressure;
+    }
+
+    // Get the visibility in meters
+    public int getVisibility() {
+        return visibility;
+    }
+
+    // Get the wind speed in m/s
+    public double getWindSpeed() {
+        return windSpeed;
+    }
+
+    // Get the condition group, e.g. "Rain"
+    public String getConditionGroup() {
+        return conditionGroup;
+    }
+
+    // Get the condition description, e.g. "light rain"
+    public String getCondition() {
+        return condition;
+    }
+
+    // Get sunrise in unix seconds
+    public long getSunrise() {
+        return sunrise;
+    }
+
+    // Get sunset in unix seconds
+    public long getSunset() {
+        return sunset;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for CircuitBreaker and the endpoint mapping it is keyed by.
+ * A fake clock drives the breaker through closed, open and half-open states.
+ * The interceptor test answers calls from a final interceptor, so no network
+ * is involved.
+ */
+public class CircuitBreakerTest {
+
+    private long now = 1_000_000L;
+
+    // Runs one permitted call with the given outcome
+    private static void call(CircuitBreaker breaker, boolean success) {
+        assertTrue(breaker.tryAcquire());
+        if (success) {
+            breaker.onSuccess(100);
+        } else {
+            breaker.onFailure();
+        }
+    }
+
+    /**
+     * Verifies that the circuit opens once half of a full enough window failed.
+     */
+    @Test
+    public void opensOnFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker(1000, () -> now);
+        call(breaker, true);
+        call(breaker, false);
+        call(breaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse("Open circuit refuses calls", breaker.tryAcquire());
+    }
+
+    /**
+     * Verifies that slow successful calls count as failures.
+     */
+    @Test
+    public void slowCallsCountAsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(1000, () -> now);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(5000);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * Verifies that after the cool-down a single probe is allowed and its success closes the circuit.
+     */
+    @Test
+    public void halfOpenProbeCloses() {
+        CircuitBreaker breaker = new CircuitBreaker(1000, () -> now);
+        for (int i = 0; i < 4; i++) call(breaker, false);
+
+        now += 30_000;
+        assertTrue("Probe is let through", breaker.tryAcquire());
+        assertFalse("Only one probe at a time", breaker.tryAcquire());
+        breaker.onSuccess(100);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    /**
+     * Verifies that a failed probe opens the circuit for another cool-down.
+     */
+    @Test
+    public void halfOpenProbeFailureReopens() {
+        CircuitBreaker breaker = new CircuitBreaker(1000, () -> now);
+        for (int i = 0; i < 4; i++) call(breaker, false);
+
+        now += 30_000;
+        call(breaker, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(30_000, breaker.millisUntilRetry());
+    }
+
+    /**
+     * Verifies that request URLs map to the endpoint they belong to.
+     */
+    @Test
+    public void mapsUrlsToEndpoints() {
+        assertEquals(ApiEndpoint.WEATHER,
+                ApiEndpoint.of(HttpUrl.get("https://api.openweathermap.org/data/2.5/weather?q=Chicago")));
+        assertEquals(ApiEndpoint.GEOCODE,
+                ApiEndpoint.of(HttpUrl.get("https://maps.googleapis.com/maps/api/geocode/json?address=Chicago")));
+        assertEquals(ApiEndpoint.GEMINI_IMAGE, ApiEndpoint.of(HttpUrl.get(
+                "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-image:generateContent")));
+        assertEquals(ApiEndpoint.GEMINI_TEXT, ApiEndpoint.of(HttpUrl.get(
+                "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:generateContent")));
+        assertNull(ApiEndpoint.of(HttpUrl.get("https://example.com/")));
+    }
+
+    /**
+     * Verifies that time spent waiting for a rate limit token is not timed by the breaker.
+     */
+    @Test
+    public void throttledCallIsNotTimedAsSlow() throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        CircuitBreaker breaker = new CircuitBreaker(200) {
+            @Override
+            public synchronized void onSuccess(long latencyMillis) {
+                latencies.add(latencyMillis);
+                super.onSuccess(latencyMillis);
+            }
+        };
+        Map<ApiEndpoint, CircuitBreaker> breakers = new EnumMap<>(ApiEndpoint.class);
+        breakers.put(ApiEndpoint.GEMINI_TEXT, breaker);
+
+        // One token, refilled after 600 ms, so the second call waits in the limiter
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new GeminiRateLimiter(GeminiRateLimiter.GEMINI_HOST, 100,
+                        model -> new TokenBucket(1, 1 / 0.6)))
+                .addInterceptor(new CircuitBreakerInterceptor(breakers))
+                .addInterceptor(chain -> new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_2)
+                        .code(200)
+                        .message("OK")
+                        .body(ResponseBody.create("{}", MediaType.parse("application/json")))
+                        .build())
+                .build();
+        Request request = new Request.Builder()
+                .url("https://" + GeminiRateLimiter.GEMINI_HOST + "/v1beta/models/gemini-2.5-flash:generateContent")
+                .build();
+
+        long start = System.currentTimeMillis();
+        client.newCall(request).execute().close();
+        client.newCall(request).execute().close();
+        assertTrue("Second call was throttled", System.currentTimeMillis() - start >= 400);
+
+        assertEquals(2, latencies.size());
+        for (long latency : latencies) {
+            assertTrue("Throttling counted as latency: " + latency, latency < 200);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.group316weatherappproject;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local benchmark of the cached statements against the per-call queries they
+ * replaced, with 10,000 cities for one user. Both sides run inside one
+ * transaction so the comparison is statement overhead, not disk syncs.
+ * Timings are only logged, since wall-clock times vary between machines;
+ * the assertions check that both paths produce the same data.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseStatementBenchmarkTest {
+
+    private static final String TAG = "StatementBenchmark";
+    private static final String TEST_USER = "benchmarkuser";
+    private static final int CITY_COUNT = 10_000;
+    private static final int WARM_UP = 500;
+
+    private DatabaseHelper databaseHelper;
+    private SQLiteDatabase db;
+
+    /**
+     * Creates a fresh database with one user.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase("WeatherApp.db");
+        databaseHelper = new DatabaseHelper(context);
+        db = databaseHelper.getWritableDatabase();
+        assertTrue(databaseHelper.registerUser(TEST_USER, "password123"));
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+
+    /**
+     * Inserts, lists and deletes 10,000 cities each way and logs the time taken.
+     */
+    @Test
+    public void compareCachedStatementsWithPerCallQueries() {
+        // Warm up both paths so neither pays for class loading
+        insertUncached("warmup-a", WARM_UP);
+        insertCached("warmup-b", WARM_UP);
+        deleteUncached("warmup-a", WARM_UP);
+        deleteCached("warmup-b", WARM_UP);
+
+        long uncachedInsert = insertUncached("uncached-", CITY_COUNT);
+        long cachedInsert = insertCached("cached-", CITY_COUNT);
+
+        long start = System.nanoTime();
+        List<City> uncachedList = listUncached();
+        long uncachedListNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<City> cachedList = databaseHelper.getCitiesForUser(TEST_USER);
+        long cachedListNanos = System.nanoTime() - start;
+        assertEquals(2 * CITY_COUNT, uncachedList.size());
+        assertEquals(uncachedList.size(), cachedList.size());
+        assertEquals(uncachedList.get(0).name, cachedList.get(0).name);
+        assertEquals(uncachedList.get(CITY_COUNT).name, cachedList.get(CITY_COUNT).name);
+
+        long uncachedDelete = deleteUncached("uncached-", CITY_COUNT);
+        long cachedDelete = deleteCached("cached-", CITY_COUNT);
+        assertTrue(databaseHelper.getCitiesForUser(TEST_USER).isEmpty());
+
+        Log.i(TAG, CITY_COUNT + " cities (ms), per-call -> cached:"
+                + " insert " + uncachedInsert / 1_000_000 + " -> " + cachedInsert / 1_000_000
+                + ", list " + uncachedListNanos / 1_000_000 + " -> " + cachedListNanos / 1_000_000
+                + ", delete " + uncachedDelete / 1_000_000 + " -> " + cachedDelete / 1_000_000);
+    }
+
+    // Insert cities the old way: look the user up, then insert ContentValues
+    private long insertUncached(String prefix, int count) {
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < count; i++) {
+                int userId = lookUpUserId();
+                ContentValues values = new ContentValues();
+                values.put("city_name", prefix + i);
+                values.put("user_id", userId);
+                values.put("latitude", 10.0);
+                values.put("longitude", 20.0);
+                db.insert("cities", null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long insertCached(String prefix, int count) {
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < count; i++) {
+                databaseHelper.addCity(TEST_USER, prefix + i, 10.0, 20.0);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // List cities the old way: query() with a column lookup per row
+    private List<City> listUncached() {
+        List<City> cities = new ArrayList<>();
+        String[] columns = {"city_name", "latitude", "longitude"};
+        try (Cursor cursor = db.query("cities", columns, "user_id = ?",
+                new String[]{String.valueOf(lookUpUserId())}, null, null, "city_id")) {
+            while (cursor.moveToNext()) {
+                cities.add(new City(cursor.getString(cursor.getColumnIndexOrThrow("city_name")),
+                        cursor.getDouble(cursor.getColumnIndexOrThrow("latitude")),
+                        cursor.getDouble(cursor.getColumnIndexOrThrow("longitude"))));
+            }
+        }
+        return cities;
+    }
+
+    // Delete cities the old way: look the user up, then delete with a built selection
+    private long deleteUncached(String prefix, int count) {
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < count; i++) {
+                int userId = lookUpUserId();
+                db.delete("cities", "user_id = ? AND city_name = ?",
+                        new String[]{String.valueOf(userId), prefix + i});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long deleteCached(String prefix, int count) {
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < count; i++) {
+                databaseHelper.deleteCity(TEST_USER, prefix + i);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private int lookUpUserId() {
+        try (Cursor cursor = db.query("users", new String[]{"id"}, "username = ?",
+                new String[]{TEST_USER}, null, null, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(cursor.getColumnIndexOrThrow("id"));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Local unit tests for the Gemini rate limiter and its token bucket.
+ * These use a fake clock for the bucket and hand-built responses for the
+ * Retry-After parsing, so no network or Android classes are involved.
+ */
+public class GeminiRateLimiterTest {
+
+    private long now = 1_000_000L;
+
+    // Builds a 429 response with the given Retry-After header and body
+    private static Response tooManyRequests(String retryAfter, String body) {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("https://" + GeminiRateLimiter.GEMINI_HOST + "/").build())
+                .protocol(Protocol.HTTP_2)
+                .code(429)
+                .message("Too Many Requests")
+                .body(ResponseBody.create(body, MediaType.parse("application/json")));
+        if (retryAfter != null) builder.header("Retry-After", retryAfter);
+        return builder.build();
+    }
+
+    /**
+     * Verifies that a full bucket serves its burst at once and then spaces callers out.
+     */
+    @Test
+    public void bucketSpacesCallersAfterBurst() {
+        TokenBucket bucket = new TokenBucket(2, 1.0, () -> now);
+
+        assertEquals(0, bucket.reserve(10_000));
+        assertEquals(0, bucket.reserve(10_000));
+        assertEquals(1000, bucket.reserve(10_000));
+        assertEquals(2000, bucket.reserve(10_000));
+
+        now += 4000;
+        assertEquals(0, bucket.reserve(10_000));
+    }
+
+    /**
+     * Verifies that a reservation over the maximum wait is refused without taking a token.
+     */
+    @Test
+    public void bucketRefusesLongWaits() {
+        TokenBucket bucket = new TokenBucket(1, 0.5, () -> now);
+        bucket.reserve(0);
+
+        assertEquals(-1, bucket.reserve(1000));
+        assertEquals(2000, bucket.reserve(5000));
+    }
+
+    /**
+     * Verifies that a pause holds back tokens until it ends.
+     */
+    @Test
+    public void bucketHonorsPause() {
+        TokenBucket bucket = new TokenBucket(5, 1.0, () -> now);
+        bucket.pause(7000);
+
+        assertEquals(7000, bucket.millisUntilAvailable());
+        now += 7000;
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    /**
+     * Verifies that the model name is taken from the Gemini method path.
+     */
+    @Test
+    public void extractsModelFromPath() {
+        HttpUrl url = HttpUrl.get("https://generativelanguage.googleapis.com/v1beta/models/"
+                + "gemini-2.5-flash-lite:streamGenerateContent?alt=sse");
+
+        assertEquals("gemini-2.5-flash-lite", GeminiRateLimiter.modelOf(url));
+        assertEquals("default", GeminiRateLimiter.modelOf(HttpUrl.get("https://example.com/other")));
+    }
+
+    /**
+     * Verifies Retry-After in seconds, RetryInfo in the body, and the no-hint case.
+     */
+    @Test
+    public void readsServerRetryDelay() throws IOException {
+        assertEquals(12_000, GeminiRateLimiter.retryAfterMillis(tooManyRequests("12", "{}")));
+        assertEquals(17_000, GeminiRateLimiter.retryAfterMillis(tooManyRequests(null,
+                "{\"error\":{\"details\":[{\"@type\":\"type.googleapis.com/google.rpc.RetryInfo\","
+                        + "\"retryDelay\": \"17s\"}]}}")));
+        assertEquals(0, GeminiRateLimiter.retryAfterMillis(tooManyRequests(null, "{}")));
+    }
+
+    /**
+     * Verifies that backoff is drawn from zero up to an exponentially growing ceiling.
+     */
+    @Test
+    public void backoffIsFullJitterExponential() {
+        GeminiRateLimiter limiter = new GeminiRateLimiter(GeminiRateLimiter.GEMINI_HOST, 1000);
+        long longestThird = 0;
+        for (int i = 0; i < 200; i++) {
+            long first = limiter.backoffMillis(0);
+            long third = limiter.backoffMillis(2);
+            assertTrue(first >= 0 && first <= 1000);
+            assertTrue(third >= 0 && third <= 4000);
+            longestThird = Math.max(longestThird, third);
+        }
+        // Equal jitter would never go below half the ceiling; the range is used up to the top
+        assertTrue(longestThird > 1000);
+    }
+
+    /**
+     * Verifies that a refunded token is handed to the next caller, up to capacity.
+     */
+    @Test
+    public void bucketRefundsUnusedToken() {
+        TokenBucket bucket = new TokenBucket(1, 1.0, () -> now);
+        assertEquals(0, bucket.reserve(10_000));
+        assertEquals(1000, bucket.reserve(10_000));
+
+        bucket.refund();
+        assertEquals(1000, bucket.millisUntilAvailable());
+        bucket.refund();
+        bucket.refund();
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(1000, bucket.millisUntilAvailable());
+    }
+
+    /**
+     * Verifies that a call cancelled while waiting for its token gives the token back.
+     */
+    @Test
+    public void cancelledWaitRefundsToken() throws Exception {
+        // A stopped clock, so only the reservation and refund move the bucket
+        TokenBucket bucket = new TokenBucket(1, 5.0, () -> now);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new GeminiRateLimiter(GeminiRateLimiter.GEMINI_HOST, 100, model -> bucket))
+                .addInterceptor(chain -> {
+                    throw new AssertionError("A cancelled call must not be sent");
+                })
+                .build();
+        Call call = client.newCall(new Request.Builder()
+                .url("https://" + GeminiRateLimiter.GEMINI_HOST + "/v1beta/models/gemini-2.5-flash:generateContent")
+                .build());
+
+        bucket.reserve(0);
+        assertEquals(200, bucket.millisUntilAvailable());
+
+        call.cancel();
+        try {
+            call.execute();
+            fail("Expected the cancelled call to fail");
+        } catch (IOException expected) {
+            // Cancelled after its 200 ms wait, before being sent
+        }
+        assertEquals(200, bucket.millisUntilAvailable());
+    }
+
+    /**
+     * Verifies that rate limit failures are reported as RATE_LIMIT.
+     */
+    @Test
+    public void classifiesRateLimit() {
+        assertEquals(ThemeErrorHandler.ThemeError.RATE_LIMIT,
+                ThemeErrorHandler.classifyError(new RateLimitException("limit", 1000)));
+        assertEquals(ThemeErrorHandler.ThemeError.NETWORK_ERROR,
+                ThemeErrorHandler.classifyError(new IOException("reset")));
+    }
+}
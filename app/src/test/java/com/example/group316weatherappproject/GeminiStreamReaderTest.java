@@ -0,0 +1,65 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for GeminiStreamReader.
+ * These feed recorded server-sent event streams through the reader and check
+ * that text parts are delivered in order and non-data lines are ignored.
+ */
+public class GeminiStreamReaderTest {
+
+    private static final MediaType SSE = MediaType.parse("text/event-stream");
+
+    // Builds one "data:" event carrying the given text parts
+    private static String event(String... texts) {
+        StringBuilder parts = new StringBuilder();
+        for (String text : texts) {
+            if (parts.length() > 0) parts.append(',');
+            parts.append("{\"text\":\"").append(text).append("\"}");
+        }
+        return "data: {\"candidates\":[{\"content\":{\"parts\":[" + parts
+                + "],\"role\":\"model\"}}]}\r\n\r\n";
+    }
+
+    /**
+     * Verifies that each event's text reaches the listener and the full text is returned.
+     */
+    @Test
+    public void deliversChunksInOrder() throws IOException {
+        String stream = event("1. What should ") + event("I wear?\\n2. Is it ") + event("safe?");
+        List<String> chunks = new ArrayList<>();
+
+        String full = GeminiStreamReader.read(ResponseBody.create(stream, SSE), chunks::add);
+
+        assertEquals(3, chunks.size());
+        assertEquals("I wear?\n2. Is it ", chunks.get(1));
+        assertEquals("1. What should I wear?\n2. Is it safe?", full);
+    }
+
+    /**
+     * Verifies that comments, blank lines and events without text are skipped.
+     */
+    @Test
+    public void skipsNonTextEvents() throws IOException {
+        String stream = ": keep-alive\n\n"
+                + event("Hello", " world")
+                + "data: {\"usageMetadata\":{\"totalTokenCount\":12}}\n\n"
+                + "data: [DONE]\n\n";
+        List<String> chunks = new ArrayList<>();
+
+        String full = GeminiStreamReader.read(ResponseBody.create(stream, SSE), chunks::add);
+
+        assertEquals(1, chunks.size());
+        assertEquals("Hello world", full);
+    }
+}
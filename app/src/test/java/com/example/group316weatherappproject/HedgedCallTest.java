@@ -0,0 +1,133 @@
+package com.example.group316weatherappproject;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for HedgedCall, its latency tracker and its hedge budget.
+ * The race against a stalled request runs against a MockWebServer; Robolectric
+ * provides the Android logging used when a hedge is sent.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HedgedCallTest {
+
+    private final MockWebServer server = new MockWebServer();
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private static HedgedCall hedgedCall(double budgetRatio) {
+        OkHttpClient client = new OkHttpClient();
+        return new HedgedCall(client, client, budgetRatio, 300, 1500);
+    }
+
+    /**
+     * Verifies that the default delay is used until enough samples are recorded.
+     */
+    @Test
+    public void usesDefaultUntilEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker(100, 1500);
+        for (int i = 0; i < 5; i++) tracker.record(100);
+
+        assertEquals(1500, tracker.percentile(0.95));
+    }
+
+    /**
+     * Verifies p95 over a full window, and that old samples drop out of it.
+     */
+    @Test
+    public void reportsPercentileOfRecentSamples() {
+        LatencyTracker tracker = new LatencyTracker(20, 1500);
+        for (int i = 1; i <= 20; i++) tracker.record(i * 10);
+
+        assertEquals(190, tracker.percentile(0.95));
+        assertEquals(100, tracker.percentile(0.5));
+
+        for (int i = 0; i < 20; i++) tracker.record(50);
+        assertEquals(50, tracker.percentile(0.95));
+    }
+
+    /**
+     * Verifies that a 10% budget allows one hedge per ten requests after the initial one.
+     */
+    @Test
+    public void budgetLimitsHedges() {
+        HedgedCall calls = hedgedCall(0.1);
+
+        assertTrue(calls.earnHedgeCredit());
+        assertTrue(calls.spendHedgeCredit());
+        int hedges = 0;
+        for (int i = 0; i < 20; i++) {
+            calls.earnHedgeCredit();
+            if (calls.spendHedgeCredit()) hedges++;
+        }
+        assertEquals(2, hedges);
+    }
+
+    /**
+     * Verifies that a stalled first request is beaten by the hedge, and is then cancelled.
+     */
+    @Test
+    public void hedgeBeatsStalledPrimaryAndCancelsIt() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // The first request stalls well past the hedge delay
+                if (requests.getAndIncrement() == 0) {
+                    return new MockResponse().setBody("primary").setHeadersDelay(2, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody("hedge");
+            }
+        });
+        server.start();
+
+        OkHttpClient primaryClient = new OkHttpClient();
+        List<Call> primaryCalls = new CopyOnWriteArrayList<>();
+        Call.Factory primary = request -> {
+            Call call = primaryClient.newCall(request);
+            primaryCalls.add(call);
+            return call;
+        };
+        HedgedCall calls = new HedgedCall(primary, new OkHttpClient(), 1.0, 100, 100);
+
+        long start = System.currentTimeMillis();
+        try (Response response = calls.execute(new Request.Builder().url(server.url("/weather")).build())) {
+            assertEquals("hedge", response.body().string());
+        }
+        assertTrue("Waited for the stalled request", System.currentTimeMillis() - start < 1500);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, primaryCalls.size());
+        assertTrue("Losing call was not cancelled", primaryCalls.get(0).isCanceled());
+    }
+
+    /**
+     * Verifies that a budget of zero disables hedging.
+     */
+    @Test
+    public void zeroBudgetDisablesHedging() {
+        assertFalse(hedgedCall(0).earnHedgeCredit());
+    }
+}
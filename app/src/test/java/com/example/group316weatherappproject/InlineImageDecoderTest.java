@@ -0,0 +1,117 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import okio.Buffer;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the inline data scanner in InlineImageDecoder.
+ * These check that only the base64 characters of the first inlineData part
+ * are streamed, with JSON escapes removed, how far images are subsampled, and
+ * which PNGs are opaque enough for RGB_565, without touching Android decoders.
+ */
+public class InlineImageDecoderTest {
+
+    // Reads everything the stream returns, using bulk reads like BitmapFactory does
+    private static String drain(InputStream in) throws IOException {
+        return Okio.buffer(Okio.source(in)).readUtf8();
+    }
+
+    /**
+     * Verifies that text parts before the image are skipped and the data ends at its closing quote.
+     */
+    @Test
+    public void streamsDataOfFirstInlinePart() throws IOException {
+        Buffer response = new Buffer().writeUtf8("{\"candidates\":[{\"content\":{\"parts\":["
+                + "{\"text\":\"Here is \\\"data\\\" about the city\"},"
+                + "{\"inlineData\":{\"mimeType\":\"image/png\",\"data\" : \"iVBORw0KGgo+AAAA=\"}}"
+                + "]}}],\"usageMetadata\":{}}");
+
+        InputStream data = InlineImageDecoder.openInlineData(response);
+
+        assertEquals("iVBORw0KGgo+AAAA=", drain(data));
+    }
+
+    /**
+     * Verifies that escaped slashes are resolved and escaped line breaks are dropped.
+     */
+    @Test
+    public void resolvesEscapes() throws IOException {
+        Buffer response = new Buffer().writeUtf8(
+                "{\"inlineData\":{\"data\":\"ab\\/cd\\nef\\r\\ngh\"}}");
+
+        InputStream data = InlineImageDecoder.openInlineData(response);
+
+        assertEquals("ab/cdefgh", drain(data));
+    }
+
+    // Builds the start of a PNG: signature, IHDR with the color type, then the given chunks
+    private static byte[] pngHeader(int colorType, String... chunkTypes) {
+        Buffer png = new Buffer()
+                .write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'})
+                .writeInt(13).writeUtf8("IHDR")
+                .writeInt(1024).writeInt(1024).writeByte(8).writeByte(colorType)
+                .writeByte(0).writeByte(0).writeByte(0)
+                .writeInt(0);
+        for (String type : chunkTypes) {
+            png.writeInt(4).writeUtf8(type).writeInt(0).writeInt(0);
+        }
+        return png.readByteArray();
+    }
+
+    /**
+     * Verifies that only PNGs without an alpha channel or tRNS chunk count as opaque.
+     */
+    @Test
+    public void detectsOpaquePng() {
+        byte[] rgb = pngHeader(2, "sRGB", "IDAT");
+        assertTrue(InlineImageDecoder.isOpaquePng(rgb, rgb.length));
+        byte[] palette = pngHeader(3, "PLTE", "IDAT");
+        assertTrue(InlineImageDecoder.isOpaquePng(palette, palette.length));
+
+        byte[] rgba = pngHeader(6, "IDAT");
+        assertFalse(InlineImageDecoder.isOpaquePng(rgba, rgba.length));
+        byte[] transparentPalette = pngHeader(3, "PLTE", "tRNS", "IDAT");
+        assertFalse(InlineImageDecoder.isOpaquePng(transparentPalette, transparentPalette.length));
+        // Pixel data not reached, so a later tRNS cannot be ruled out
+        byte[] cut = pngHeader(2, "sRGB");
+        assertFalse(InlineImageDecoder.isOpaquePng(cut, cut.length));
+        byte[] jpeg = {(byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xe0};
+        assertFalse(InlineImageDecoder.isOpaquePng(jpeg, jpeg.length));
+    }
+
+    /**
+     * Verifies that a text-only response yields no stream.
+     */
+    @Test
+    public void returnsNullWithoutInlineData() throws IOException {
+        Buffer response = new Buffer().writeUtf8(
+                "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"No image today\"}]}}]}");
+
+        assertNull(InlineImageDecoder.openInlineData(response));
+    }
+
+    /**
+     * Verifies that the sample size keeps the bitmap at least as large as the view.
+     */
+    @Test
+    public void sampleSizeCoversTargetView() {
+        // 1024x1024 image in a 1080x660 view: no subsampling possible
+        assertEquals(1, InlineImageDecoder.calculateInSampleSize(1024, 1024, 1080, 660));
+        // 2048x2048 image in a 720x440 view: 1024 still covers it, 512 would not
+        assertEquals(2, InlineImageDecoder.calculateInSampleSize(2048, 2048, 720, 440));
+        // 4096x2048 image in a 480x250 view
+        assertEquals(8, InlineImageDecoder.calculateInSampleSize(4096, 2048, 480, 250));
+        // Unknown view size decodes at full resolution
+        assertEquals(1, InlineImageDecoder.calculateInSampleSize(4096, 4096, 0, 0));
+    }
+}
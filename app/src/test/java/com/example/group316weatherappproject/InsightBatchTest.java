@@ -0,0 +1,70 @@
+package com.example.group316weatherappproject;
+
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for InsightBatch.
+ * These check that the structured JSON Gemini returns in batched mode is read
+ * in order, incomplete entries are dropped, and the request schema matches
+ * what the reader expects.
+ */
+public class InsightBatchTest {
+
+    /**
+     * Verifies that questions keep their order and map to their answers.
+     */
+    @Test
+    public void readsQuestionsAndAnswersInOrder() throws IOException {
+        InsightBatch batch = InsightBatch.fromJson("["
+                + "{\"question\":\"What should I wear today?\",\"answer\":\"A light rain jacket.\"},"
+                + "{\"question\":\"Is it a good day for a run?\",\"answer\":\" Yes, early in the morning. \"}"
+                + "]");
+
+        assertEquals(Arrays.asList("What should I wear today?", "Is it a good day for a run?"), batch.getQuestions());
+        assertEquals("Yes, early in the morning.", batch.getAnswers().get("Is it a good day for a run?"));
+    }
+
+    /**
+     * Verifies that entries missing a question or an answer are skipped.
+     */
+    @Test
+    public void skipsIncompleteEntries() throws IOException {
+        InsightBatch batch = InsightBatch.fromJson("["
+                + "{\"question\":\"What should I wear today?\"},"
+                + "{\"question\":\"  \",\"answer\":\"Something.\"},"
+                + "{\"question\":\"Should I bring water?\",\"answer\":null}"
+                + "]");
+
+        assertTrue(batch.isEmpty());
+    }
+
+    /**
+     * Verifies that text other than a JSON array is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsNonArray() throws IOException {
+        InsightBatch.fromJson("{\"question\":\"What should I wear today?\"}");
+    }
+
+    /**
+     * Verifies that the schema asks for an array of objects with both fields required.
+     */
+    @Test
+    public void schemaRequiresQuestionAndAnswer() {
+        JsonObject schema = InsightBatch.responseSchema();
+
+        assertEquals("ARRAY", schema.get("type").getAsString());
+        JsonObject item = schema.getAsJsonObject("items");
+        assertEquals("OBJECT", item.get("type").getAsString());
+        assertEquals(2, item.getAsJsonArray("required").size());
+        assertEquals("STRING", item.getAsJsonObject("properties").getAsJsonObject("answer").get("type").getAsString());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the latency histogram and the per-call timer of NetworkMetrics.
+ * Events are delivered by hand to a listener for an unexecuted call, so no
+ * network is involved.
+ */
+public class NetworkMetricsTest {
+
+    private static Call callTo(String url) {
+        return new OkHttpClient().newCall(new Request.Builder().url(url).build());
+    }
+
+    /**
+     * Verifies count, mean, max and bucket-based percentiles.
+     */
+    @Test
+    public void histogramSummarizesDurations() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 95; i++) histogram.record(40);
+        for (int i = 0; i < 5; i++) histogram.record(1_200);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(98, histogram.getMeanMillis());
+        assertEquals(1_200, histogram.getMaxMillis());
+        assertEquals(50, histogram.percentile(0.5));
+        assertEquals(50, histogram.percentile(0.95));
+        assertEquals(1_200, histogram.percentile(0.99));
+    }
+
+    /**
+     * Verifies that a call's events are recorded against its endpoint.
+     */
+    @Test
+    public void recordsCallAgainstEndpoint() {
+        NetworkMetrics metrics = new NetworkMetrics();
+        Call call = callTo("https://api.openweathermap.org/data/2.5/weather?lat=1&lon=2");
+        EventListener listener = metrics.create(call);
+
+        listener.callStart(call);
+        listener.connectionAcquired(call, null);
+        listener.requestHeadersEnd(call, call.request());
+        listener.responseHeadersStart(call);
+        listener.responseBodyStart(call);
+        listener.responseBodyEnd(call, 100);
+        listener.callEnd(call);
+
+        assertEquals(1, metrics.getCount(ApiEndpoint.WEATHER, NetworkMetrics.Counter.CALLS));
+        assertEquals(1, metrics.getCount(ApiEndpoint.WEATHER, NetworkMetrics.Counter.REUSED_CONNECTIONS));
+        assertEquals(1, metrics.getHistogram(ApiEndpoint.WEATHER, NetworkMetrics.Phase.TIME_TO_FIRST_BYTE).getCount());
+        assertEquals(1, metrics.getHistogram(ApiEndpoint.WEATHER, NetworkMetrics.Phase.TOTAL).getCount());
+        assertEquals(0, metrics.getCount(ApiEndpoint.GEMINI_TEXT, NetworkMetrics.Counter.CALLS));
+        assertTrue(metrics.describe().startsWith("WEATHER\n"));
+    }
+
+    /**
+     * Verifies that cancelled calls are not counted as failures, and untracked hosts are ignored.
+     */
+    @Test
+    public void separatesCancellationsAndIgnoresOtherHosts() {
+        NetworkMetrics metrics = new NetworkMetrics();
+        Call call = callTo("https://maps.googleapis.com/maps/api/geocode/json?address=x");
+        EventListener listener = metrics.create(call);
+
+        listener.callStart(call);
+        call.cancel();
+        listener.callFailed(call, new IOException("Canceled"));
+
+        assertEquals(1, metrics.getCount(ApiEndpoint.GEOCODE, NetworkMetrics.Counter.CANCELLED));
+        assertEquals(0, metrics.getCount(ApiEndpoint.GEOCODE, NetworkMetrics.Counter.FAILURES));
+        assertSame(EventListener.NONE, metrics.create(callTo("https://example.com/")));
+    }
+
+    /**
+     * Verifies that local cache lookups are counted and reported without any calls.
+     */
+    @Test
+    public void countsLocalCacheLookups() {
+        NetworkMetrics metrics = new NetworkMetrics();
+        metrics.recordCacheLookup(ApiEndpoint.GEMINI_TEXT, true);
+        metrics.recordCacheLookup(ApiEndpoint.GEMINI_TEXT, true);
+        metrics.recordCacheLookup(ApiEndpoint.GEMINI_TEXT, false);
+
+        assertEquals(2, metrics.getCount(ApiEndpoint.GEMINI_TEXT, NetworkMetrics.Counter.CACHE_HITS));
+        assertEquals(1, metrics.getCount(ApiEndpoint.GEMINI_TEXT, NetworkMetrics.Counter.CACHE_MISSES));
+        assertEquals(0, metrics.getCount(ApiEndpoint.GEMINI_TEXT, NetworkMetrics.Counter.CALLS));
+        assertTrue(metrics.describe().startsWith("GEMINI_TEXT\n"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for PasswordHasher.
+ * These tests verify how the cost factor is chosen from a measured hash
+ * time, how a stored hash's cost is read, and that hashes of a lower cost
+ * still verify but are flagged for rehashing, while stronger ones are kept.
+ */
+public class PasswordHasherTest {
+
+    /**
+     * Verifies that the highest cost within the target is chosen, within the allowed range.
+     */
+    @Test
+    public void chooseLogRoundsDoublesUpToTarget() {
+        // 60 ms at cost 10 -> 120 at 11, 240 at 12, 480 at 13
+        assertEquals(12, PasswordHasher.chooseLogRounds(60, 250));
+        // A slow device never goes below the minimum
+        assertEquals(PasswordHasher.MIN_LOG_ROUNDS, PasswordHasher.chooseLogRounds(900, 250));
+        // A fast device never goes above the maximum
+        assertEquals(PasswordHasher.MAX_LOG_ROUNDS, PasswordHasher.chooseLogRounds(0, 250));
+    }
+
+    /**
+     * Verifies that the cost is read from a BCrypt hash, and 0 is returned for anything else.
+     */
+    @Test
+    public void costOfReadsHashPrefix() {
+        assertEquals(10, PasswordHasher.costOf("$2a$10$abcdefghijklmnopqrstuu"));
+        assertEquals(12, PasswordHasher.costOf("$2a$12$abcdefghijklmnopqrstuu"));
+        assertEquals(0, PasswordHasher.costOf("plaintext"));
+        assertEquals(0, PasswordHasher.costOf(null));
+    }
+
+    /**
+     * Verifies that a hash at an older cost still verifies but needs rehashing.
+     */
+    @Test
+    public void olderCostVerifiesAndNeedsRehash() {
+        PasswordHasher older = new PasswordHasher(4);
+        PasswordHasher current = new PasswordHasher(5);
+
+        String oldHash = older.hash("password123");
+        assertEquals(4, PasswordHasher.costOf(oldHash));
+        assertTrue(current.verify("password123", oldHash));
+        assertFalse(current.verify("wrong", oldHash));
+        assertTrue(current.needsRehash(oldHash));
+
+        String newHash = current.hash("password123");
+        assertFalse(current.needsRehash(newHash));
+        assertTrue(current.verify("password123", newHash));
+    }
+
+    /**
+     * Verifies that a hash at a higher cost verifies and is left alone.
+     */
+    @Test
+    public void higherCostIsNotRehashed() {
+        PasswordHasher stronger = new PasswordHasher(6);
+        PasswordHasher current = new PasswordHasher(5);
+
+        String strongHash = stronger.hash("password123");
+        assertTrue(current.verify("password123", strongHash));
+        assertFalse(current.needsRehash(strongHash));
+    }
+}
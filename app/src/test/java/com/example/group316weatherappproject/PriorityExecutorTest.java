@@ -0,0 +1,97 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for PriorityExecutor.
+ * A single-thread pool is held busy while tasks queue up, so the order in
+ * which they then run shows how the queue is sorted.
+ */
+public class PriorityExecutorTest {
+
+    /**
+     * Verifies that queued tasks run by priority, in submission order within a priority.
+     */
+    @Test
+    public void runsQueuedTasksByPriority() throws Exception {
+        PriorityExecutor executor = new PriorityExecutor("test", 1, Thread::new);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        executor.submit(PriorityExecutor.Priority.USER, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        executor.submit(PriorityExecutor.Priority.PREFETCH, () -> order.add("prefetch"));
+        executor.submit(PriorityExecutor.Priority.BACKGROUND, () -> order.add("background"));
+        executor.submit(PriorityExecutor.Priority.USER, () -> order.add("user 1"));
+        Future<?> last = executor.submit(PriorityExecutor.Priority.USER, () -> order.add("user 2"));
+
+        assertEquals(4, executor.getQueueDepth());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(last.isDone());
+        assertEquals(Arrays.asList("user 1", "user 2", "background", "prefetch"), order);
+    }
+
+    /**
+     * Verifies that a promoted task runs ahead of the tasks queued before it.
+     */
+    @Test
+    public void promotedTaskRunsNext() throws Exception {
+        PriorityExecutor executor = new PriorityExecutor("test", 1, Thread::new);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        executor.submit(PriorityExecutor.Priority.USER, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        executor.submit(PriorityExecutor.Priority.BACKGROUND, () -> order.add("background"));
+        executor.submit(PriorityExecutor.Priority.PREFETCH, () -> order.add("prefetch 1"));
+        Future<?> asked = executor.submit(PriorityExecutor.Priority.PREFETCH, () -> order.add("prefetch 2"));
+
+        executor.promote(asked, PriorityExecutor.Priority.USER);
+        assertEquals(3, executor.getQueueDepth());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("prefetch 2", "background", "prefetch 1"), order);
+    }
+
+    /**
+     * Verifies that time spent waiting in the queue is recorded.
+     */
+    @Test
+    public void recordsQueueWait() throws Exception {
+        PriorityExecutor executor = new PriorityExecutor("test", 1, Thread::new);
+        executor.submit(PriorityExecutor.Priority.USER, () -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        executor.submit(PriorityExecutor.Priority.USER, () -> {}).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertTrue(executor.getMaxWaitMillis() >= 40);
+        assertTrue(executor.describe().startsWith("test: "));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the per-endpoint timeout policy and the clients built from it.
+ */
+public class TimeoutPolicyTest {
+
+    /**
+     * Verifies that each endpoint client carries its policy and shares the process-wide pool.
+     */
+    @Test
+    public void endpointClientsApplyPolicy() {
+        OkHttpClient shared = HttpClientProvider.getClient();
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            OkHttpClient client = HttpClientProvider.getClient(endpoint);
+
+            assertEquals(TimeoutPolicy.forEndpoint(endpoint).getDeadlineMillis(), client.callTimeoutMillis());
+            assertTrue(client.readTimeoutMillis() <= client.callTimeoutMillis());
+            assertSame(shared.connectionPool(), client.connectionPool());
+            assertSame(client, HttpClientProvider.getClient(endpoint));
+        }
+    }
+
+    /**
+     * Verifies that weather lookups fail faster than image generation.
+     */
+    @Test
+    public void weatherFailsFasterThanImages() {
+        assertTrue(TimeoutPolicy.forEndpoint(ApiEndpoint.WEATHER).getDeadlineMillis()
+                < TimeoutPolicy.forEndpoint(ApiEndpoint.GEMINI_IMAGE).getDeadlineMillis());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Local unit tests for WeatherBucket.
+ * These check that observations which would produce the same generated content
+ * share a key, and that a change in conditions, temperature band or time of day
+ * produces a different one.
+ */
+public class WeatherBucketTest {
+
+    private static final long SUNRISE = 1699963200L;
+    private static final long SUNSET = 1699999200L;
+
+    // Builds an observation with the given temperature, condition group and time
+    private static WeatherObservation observation(double temp, String group, long dt) throws IOException {
+        return WeatherObservation.fromJson("{\"dt\":" + dt + ",\"timezone\":-21600,"
+                + "\"main\":{\"temp\":" + temp + "},"
+                + "\"weather\":[{\"main\":\"" + group + "\",\"description\":\"" + group.toLowerCase() + "\"}],"
+                + "\"sys\":{\"sunrise\":" + SUNRISE + ",\"sunset\":" + SUNSET + "}}");
+    }
+
+    /**
+     * Verifies that similar conditions in the same city share a key regardless of name spelling.
+     */
+    @Test
+    public void similarConditionsShareKey() throws IOException {
+        String a = WeatherBucket.imageKey("Chicago", observation(11.2, "Rain", SUNRISE + 4 * 3600));
+        String b = WeatherBucket.imageKey(" chicago ", observation(14.9, "Rain", SUNRISE + 6 * 3600));
+
+        assertEquals("chicago|rain|10|day", a);
+        assertEquals(a, b);
+    }
+
+    /**
+     * Verifies that condition, temperature band and time of day each change the key.
+     */
+    @Test
+    public void differentConditionsGetDifferentKeys() throws IOException {
+        String base = WeatherBucket.imageKey("Chicago", observation(11.2, "Rain", SUNRISE + 4 * 3600));
+
+        assertNotEquals(base, WeatherBucket.imageKey("Chicago", observation(11.2, "Clear", SUNRISE + 4 * 3600)));
+        assertNotEquals(base, WeatherBucket.imageKey("Chicago", observation(15.0, "Rain", SUNRISE + 4 * 3600)));
+        assertNotEquals(base, WeatherBucket.imageKey("Chicago", observation(11.2, "Rain", SUNSET + 10 * 60)));
+    }
+
+    /**
+     * Verifies the time-of-day boundaries around sunrise and sunset.
+     */
+    @Test
+    public void timeOfDayFollowsSunriseAndSunset() throws IOException {
+        assertEquals("night", WeatherBucket.timeOfDay(observation(0, "Clear", SUNRISE - 3 * 3600)));
+        assertEquals("dawn", WeatherBucket.timeOfDay(observation(0, "Clear", SUNRISE + 30 * 60)));
+        assertEquals("day", WeatherBucket.timeOfDay(observation(0, "Clear", SUNRISE + 3 * 3600)));
+        assertEquals("dusk", WeatherBucket.timeOfDay(observation(0, "Clear", SUNSET - 30 * 60)));
+        assertEquals("night", WeatherBucket.timeOfDay(observation(0, "Clear", SUNSET + 3 * 3600)));
+    }
+
+    /**
+     * Verifies that temperature bands round down, including below zero.
+     */
+    @Test
+    public void temperatureBandsRoundDown() {
+        assertEquals(10, WeatherBucket.temperatureBand(12.3));
+        assertEquals(0, WeatherBucket.temperatureBand(0.0));
+        assertEquals(-5, WeatherBucket.temperatureBand(-0.5));
+    }
+}
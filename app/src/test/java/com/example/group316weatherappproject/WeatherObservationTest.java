@@ -0,0 +1,145 @@
+package com.example.group316weatherappproject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Local unit tests for the streaming OpenWeather decoder in WeatherObservation.
+ * These run on the JVM and check that the fields the app uses are picked out
+ * of full API documents, unknown fields are skipped, and the trimmed cache
+ * document round-trips through the same decoder.
+ */
+public class WeatherObservationTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    // A trimmed-down copy of a real OpenWeather "current weather" response
+    private static final String CHICAGO_RESPONSE = "{"
+            + "\"coord\":{\"lon\":-87.6298,\"lat\":41.8781},"
+            + "\"weather\":[{\"id\":500,\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"},"
+            + "{\"id\":701,\"main\":\"Mist\",\"description\":\"mist\",\"icon\":\"50d\"}],"
+            + "\"base\":\"stations\","
+            + "\"main\":{\"temp\":12.34,\"feels_like\":11.5,\"temp_min\":10.0,\"temp_max\":14.0,"
+            + "\"pressure\":1012,\"humidity\":81},"
+            + "\"visibility\":9000,"
+            + "\"wind\":{\"speed\":4.6,\"deg\":250,\"gust\":null},"
+            + "\"clouds\":{\"all\":90},"
+            + "\"dt\":1700000000,"
+            + "\"sys\":{\"type\":2,\"country\":\"US\",\"sunrise\":1699963200,\"sunset\":1699999200},"
+            + "\"timezone\":-21600,"
+            + "\"id\":4887398,"
+            + "\"name\":\"Chicago\","
+            + "\"cod\":200}";
+
+    /**
+     * Verifies that every decoded field is read from a full response body.
+     */
+    @Test
+    public void decodesFieldsFromResponseBody() throws IOException {
+        WeatherObservation o = WeatherObservation.fromResponseBody(ResponseBody.create(CHICAGO_RESPONSE, JSON));
+
+        assertEquals(4887398L, o.getCityId());
+        assertEquals("Chicago", o.getCityName());
+        assertEquals(1700000000L, o.getTimestamp());
+        assertEquals(-21600, o.getTimezoneOffset());
+        assertEquals(12.34, o.getTemperature(), 0.0001);
+        assertEquals(11.5, o.getFeelsLike(), 0.0001);
+        assertEquals(81, o.getHumidity());
+        assertEquals(1012, o.getPressure());
+        assertEquals(9000, o.getVisibility());
+        assertEquals(4.6, o.getWindSpeed(), 0.0001);
+        assertEquals("Rain", o.getConditionGroup());
+        assertEquals("light rain", o.getCondition());
+        assertEquals(1699963200L, o.getSunrise());
+        assertEquals(1699999200L, o.getSunset());
+    }
+
+    /**
+     * Verifies that the trimmed cache document decodes back to the same values.
+     */
+    @Test
+    public void toJsonRoundTrips() throws IOException {
+        WeatherObservation original = WeatherObservation.fromJson(CHICAGO_RESPONSE);
+        WeatherObservation copy = WeatherObservation.fromJson(original.toJson());
+
+        assertEquals(original.getCityId(), copy.getCityId());
+        assertEquals(original.getTemperature(), copy.getTemperature(), 0.0001);
+        assertEquals(original.getCondition(), copy.getCondition());
+        assertEquals(original.getSunset(), copy.getSunset());
+        assertEquals(original.getSummary(), copy.getSummary());
+    }
+
+    /**
+     * Verifies that each entry of a group response becomes one observation.
+     */
+    @Test
+    public void decodesGroupResponse() throws IOException {
+        String group = "{\"cnt\":2,\"list\":[" + CHICAGO_RESPONSE + ","
+                + CHICAGO_RESPONSE.replace("4887398", "4887158") + "]}";
+
+        List<WeatherObservation> list = WeatherObservation.fromGroupResponseBody(ResponseBody.create(group, JSON));
+
+        assertEquals(2, list.size());
+        assertEquals(4887158L, list.get(1).getCityId());
+    }
+
+    /**
+     * Verifies the one-line summary used on the home list.
+     */
+    @Test
+    public void summaryCapitalizesCondition() throws IOException {
+        WeatherObservation o = WeatherObservation.fromJson(CHICAGO_RESPONSE);
+        assertEquals("12.3°C · Light rain", o.getSummary());
+    }
+
+    /**
+     * Verifies that documents without a temperature are rejected.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsIncompleteDocument() throws IOException {
+        WeatherObservation.fromJson("{\"weather\":[{\"description\":\"clear sky\"}],\"dt\":1}");
+    }
+
+    /**
+     * Verifies that nulls inside the nested objects and the weather array are
+     * skipped, and that decimal pressure and visibility are accepted.
+     */
+    @Test
+    public void skipsNestedNullsAndReadsDecimals() throws IOException {
+        WeatherObservation o = WeatherObservation.fromJson("{"
+                + "\"weather\":[null,{\"main\":null,\"description\":\"fog\"}],"
+                + "\"main\":{\"temp\":3.5,\"feels_like\":null,\"humidity\":null,\"pressure\":1013.7},"
+                + "\"visibility\":2500.0,"
+                + "\"wind\":{\"speed\":null,\"deg\":null},"
+                + "\"sys\":{\"sunrise\":null,\"sunset\":1699999200}}");
+
+        assertEquals(3.5, o.getTemperature(), 0.0001);
+        assertEquals(0, o.getHumidity());
+        assertEquals(1013, o.getPressure());
+        assertEquals(2500, o.getVisibility());
+        assertEquals(0, o.getWindSpeed(), 0.0001);
+        assertNull(o.getConditionGroup());
+        assertEquals("fog", o.getCondition());
+        assertEquals(0, o.getSunrise());
+        assertEquals(1699999200L, o.getSunset());
+    }
+
+    /**
+     * Verifies that optional fields left out of the document stay unset.
+     */
+    @Test
+    public void missingOptionalFieldsStayEmpty() throws IOException {
+        WeatherObservation o = WeatherObservation.fromJson(
+                "{\"main\":{\"temp\":1.0},\"weather\":[{\"description\":\"snow\"}]}");
+        assertNull(o.getCityName());
+        assertEquals(0, o.getVisibility());
+    }
+}